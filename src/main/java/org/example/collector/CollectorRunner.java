@@ -2,59 +2,187 @@ package org.example.collector;
 
 import com.merakianalytics.orianna.types.common.Platform;
 import com.merakianalytics.orianna.types.common.Queue;
+import org.example.collector.dao.MatchLogDao;
+import org.example.collector.dao.StatsDao;
+import org.example.model.Bracket;
+import org.example.model.BracketGroup;
+import org.example.util.CollectorMetrics;
 import org.example.util.RiotApiClient;
 import org.example.util.RiotRateLimiter;
 
 import java.io.File;
+import java.net.URI;
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class CollectorRunner {
     public static void main(String[] args) throws Exception {
+        String modeSetting = setting("COLLECT_MODE", "incremental");
+        Mode mode = Mode.parse(modeSetting);
+        if (mode == null) {
+            System.err.println("Unknown COLLECT_MODE '" + modeSetting + "' (expected incremental, full or replay). Exiting CollectorRunner.");
+            return;
+        }
+        boolean replay = mode == Mode.REPLAY;
+        boolean incremental = mode == Mode.INCREMENTAL;
         String apiKey = System.getProperty("RIOT_API_KEY");
-        if (apiKey == null || apiKey.isBlank()) {
+        if (!replay && (apiKey == null || apiKey.isBlank())) {
             System.err.println("RIOT_API_KEY system property not set. Exiting CollectorRunner.");
             return;
         }
-        String platformTag = System.getenv().getOrDefault("RIOT_PLATFORM", "EUROPE_WEST");
+        String platformTags = setting("RIOT_PLATFORMS", setting("RIOT_PLATFORM", "EUROPE_WEST"));
         int limit = parseIntEnv("MATCH_LIMIT", 10_000);
         int seeds = parseIntEnv("SEED_COUNT", 150);
         int perSecond = parseIntEnv("RIOT_RATE_PER_SECOND", 20);
         int perTwoMinutes = parseIntEnv("RIOT_RATE_PER_TWO_MINUTES", 100);
+        int fetchConcurrency = parseIntEnv("FETCH_CONCURRENCY", 16);
+        int checkpointEvery = parseIntEnv("CHECKPOINT_EVERY", 1_000);
+        int crawlBatch = parseIntEnv("CRAWL_BATCH", 100);
+        int metricsInterval = parseIntEnv("METRICS_INTERVAL_SECONDS", 15);
+        int retainPatches = parseIntEnv("RETAIN_PATCHES", 0);
+        int rollupPatches = parseIntEnv("ROLLUP_PATCHES", 0);
+        String baseUrl = setting("RIOT_API_BASE_URL", "");
+        boolean bulkLoad = Boolean.parseBoolean(setting("BULK_LOAD", String.valueOf(!incremental)));
 
-        System.out.println("Clearing old data (before new collection)...");
-        DatabaseManager.clearData();
+        if (!incremental && !bulkLoad) {
+            System.out.println("Clearing old data (before new collection)...");
+            DatabaseManager.clearData();
+        }
 
-        Platform platform = parsePlatform(platformTag);
-        RiotRateLimiter rateLimiter = new RiotRateLimiter(perSecond, Duration.ofSeconds(1), perTwoMinutes, Duration.ofMinutes(2));
-        RiotApiClient apiClient = new RiotApiClient(apiKey, rateLimiter);
+        List<Platform> platforms = parsePlatforms(platformTags);
+        MatchCache cache = MatchCache.defaultCache();
+        RiotApiClient apiClient = null;
+        if (!replay) {
+            RiotRateLimiter rateLimiter = new RiotRateLimiter(perSecond, Duration.ofSeconds(1), perTwoMinutes, Duration.ofMinutes(2));
+            apiClient = new RiotApiClient(apiKey, rateLimiter, baseUrl.isBlank() ? null : URI.create(baseUrl));
+        }
 
-        try (Connection connection = DatabaseManager.connect()) {
+        CollectorMetrics.startReporting(CollectorMetrics.defaultReportFile(), Duration.ofSeconds(metricsInterval));
+        try (Connection connection = bulkLoad ? DatabaseManager.connectStaging(incremental) : DatabaseManager.connect()) {
             connection.setAutoCommit(false);
-
-            System.out.println("Fetching match IDs...");
-            MatchFetcher fetcher = new MatchFetcher(platform, apiClient);
-            List<String> matchIds = fetcher.fetchRecentMatchIds(Queue.RANKED_SOLO, limit, seeds);
-
-            System.out.println("Aggregating " + matchIds.size() + " matches...");
-            MatchAggregator aggregator = new MatchAggregator(platform, apiClient, connection);
-            aggregator.aggregate(matchIds);
-
-            System.out.println("Committing stats to database...");
+            try (StatsAccumulator accumulator = new StatsAccumulator(connection, checkpointEvery)) {
+                Thread checkpointOnExit = new Thread(() -> checkpointQuietly(accumulator, bulkLoad), "collector-shutdown-checkpoint");
+                Runtime.getRuntime().addShutdownHook(checkpointOnExit);
+                try {
+                    if (replay) {
+                        List<String> matchIds = cache.matchIds();
+                        Map<String, Bracket> brackets = new MatchLogDao(connection).loadBrackets();
+                        System.out.println("Replaying " + matchIds.size() + " cached matches from " + cache.root() + "...");
+                        new MatchAggregator(platforms.get(0), null, accumulator, fetchConcurrency, cache).aggregate(matchIds, brackets);
+                    } else {
+                        int collected = crawlPlatforms(connection, platforms, apiClient, accumulator, cache,
+                                fetchConcurrency, crawlBatch, limit, seeds);
+                        System.out.println("Crawled " + collected + " new matches across " + platforms.size() + " platform(s).");
+                    }
+                } finally {
+                    Runtime.getRuntime().removeShutdownHook(checkpointOnExit);
+                }
+                System.out.println("Committing stats to database...");
+            }
+            StatsDao statsDao = new StatsDao(connection);
+            if (retainPatches > 0) {
+                int dropped = statsDao.retainRecentPatches(retainPatches);
+                System.out.println("Dropped " + dropped + " stats rows older than the " + retainPatches + " most recent patches.");
+            }
+            System.out.println("Rebuilding bracket roll-ups...");
+            for (BracketGroup group : BracketGroup.values()) {
+                statsDao.rebuildRollup(group, rollupPatches);
+            }
             connection.commit();
+            if (bulkLoad) {
+                DatabaseManager.publishStaging(connection);
+            }
             System.out.println("Done.");
+        } finally {
+            CollectorMetrics.stopReporting();
+        }
+    }
+
+    private static int crawlPlatforms(Connection connection, List<Platform> platforms, RiotApiClient apiClient,
+                                      StatsAccumulator accumulator, MatchCache cache, int fetchConcurrency,
+                                      int crawlBatch, int limit, int seeds) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(platforms.size(), Thread.ofPlatform().name("collector-", 0).factory());
+        List<Future<Integer>> results = new ArrayList<>(platforms.size());
+        try {
+            // MATCH_LIMIT caps the whole run, so it is split evenly across platforms.
+            for (int i = 0; i < platforms.size(); i++) {
+                Platform platform = platforms.get(i);
+                int platformLimit = limit / platforms.size() + (i < limit % platforms.size() ? 1 : 0);
+                results.add(executor.submit(() -> {
+                    MatchAggregator aggregator = new MatchAggregator(platform, apiClient, accumulator, fetchConcurrency, cache);
+                    MatchFetcher fetcher = new MatchFetcher(platform, apiClient);
+                    MatchCrawler crawler = new MatchCrawler(connection, platform, fetcher, aggregator, accumulator, fetchConcurrency, crawlBatch);
+                    return crawler.crawl(Queue.RANKED_SOLO, platformLimit, seeds);
+                }));
+            }
+            int collected = 0;
+            for (int i = 0; i < platforms.size(); i++) {
+                String tag = platforms.get(i).getTag();
+                try {
+                    int platformCollected = results.get(i).get();
+                    System.out.println(tag + ": crawled " + platformCollected + " new matches.");
+                    collected += platformCollected;
+                } catch (ExecutionException e) {
+                    System.err.println(tag + ": collection failed: " + e.getCause());
+                }
+            }
+            return collected;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void checkpointQuietly(StatsAccumulator accumulator, boolean bulkLoad) {
+        try {
+            System.out.println(bulkLoad
+                    ? "Interrupted; bulk runs are not resumable, the staging database will be discarded on the next run."
+                    : "Interrupted; checkpointing aggregated stats...");
+            if (bulkLoad) return;
+            accumulator.checkpoint();
+        } catch (SQLException e) {
+            System.err.println("Failed to checkpoint stats on shutdown: " + e.getMessage());
         }
     }
 
     private static int parseIntEnv(String key, int fallback) {
         try {
-            return Integer.parseInt(System.getenv().getOrDefault(key, String.valueOf(fallback)));
+            return Integer.parseInt(setting(key, String.valueOf(fallback)));
         } catch (NumberFormatException e) {
             return fallback;
         }
     }
 
+    private static String setting(String key, String fallback) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) {
+            value = System.getenv(key);
+        }
+        return value == null || value.isBlank() ? fallback : value.trim();
+    }
+
+    private static List<Platform> parsePlatforms(String tags) {
+        Set<Platform> platforms = new LinkedHashSet<>();
+        for (String tag : tags.split(",")) {
+            if (!tag.isBlank()) {
+                platforms.add(parsePlatform(tag));
+            }
+        }
+        if (platforms.isEmpty()) {
+            platforms.add(Platform.EUROPE_WEST);
+        }
+        return new ArrayList<>(platforms);
+    }
+
     private static Platform parsePlatform(String tag) {
         if (tag == null || tag.isBlank()) return Platform.EUROPE_WEST;
         String normalized = tag.trim().toUpperCase().replace("-", "_");
@@ -64,4 +192,18 @@ public class CollectorRunner {
             return Platform.EUROPE_WEST;
         }
     }
+
+    private enum Mode {
+        INCREMENTAL,
+        FULL,
+        REPLAY;
+
+        private static Mode parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+        }
+    }
 }
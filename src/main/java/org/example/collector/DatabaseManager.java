@@ -1,18 +1,43 @@
 package org.example.collector;
 
+import com.merakianalytics.orianna.types.common.Platform;
 import org.example.util.AppPaths;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Properties;
 
 public class DatabaseManager {
     private static final Path SNAPSHOT_PATH = AppPaths.snapshotPath();
     private static final String DATABASE_URL = "jdbc:sqlite:" + SNAPSHOT_PATH.toString();
+    private static final Path STAGING_PATH = SNAPSHOT_PATH.resolveSibling(SNAPSHOT_PATH.getFileName() + ".staging");
+    private static final int SCHEMA_VERSION = 4;
+    private static final String[] INDEXES = {
+            "CREATE INDEX IF NOT EXISTS crawl_frontier_pending ON crawl_frontier (platform, state, added_at);"
+    };
+    // Crawl state written before the collector went multi-platform belongs to the platform it defaulted to.
+    private static final String LEGACY_PLATFORM = Platform.EUROPE_WEST.getTag();
+    private static final String PENDING_MATCHES_DDL =
+            "CREATE TABLE IF NOT EXISTS pending_matches (platform TEXT NOT NULL, position INTEGER NOT NULL, match_id TEXT NOT NULL, PRIMARY KEY (platform, position));";
+    private static final String CHAMPION_STATS_DDL =
+            "CREATE TABLE IF NOT EXISTS champion_stats (patch INTEGER NOT NULL DEFAULT 0, bracket INTEGER NOT NULL DEFAULT 0, champion_id INTEGER NOT NULL, wins INTEGER NOT NULL, plays INTEGER NOT NULL, PRIMARY KEY (patch, bracket, champion_id), FOREIGN KEY (champion_id) REFERENCES champions (id)) WITHOUT ROWID;";
+    private static final String ROLE_STATS_DDL =
+            "CREATE TABLE IF NOT EXISTS role_stats (patch INTEGER NOT NULL DEFAULT 0, bracket INTEGER NOT NULL DEFAULT 0, champion_id INTEGER NOT NULL, role TEXT NOT NULL, plays INTEGER NOT NULL, PRIMARY KEY (patch, bracket, champion_id, role), FOREIGN KEY (champion_id) REFERENCES champions (id)) WITHOUT ROWID;";
+    private static final String SYNERGY_STATS_DDL =
+            "CREATE TABLE IF NOT EXISTS synergy_stats (patch INTEGER NOT NULL DEFAULT 0, bracket INTEGER NOT NULL DEFAULT 0, champion_id INTEGER NOT NULL, champion_role INTEGER NOT NULL DEFAULT 0, ally_id INTEGER NOT NULL, ally_role INTEGER NOT NULL DEFAULT 0, wins INTEGER NOT NULL, plays INTEGER NOT NULL, PRIMARY KEY (patch, bracket, champion_id, champion_role, ally_id, ally_role), FOREIGN KEY (champion_id) REFERENCES champions (id), FOREIGN KEY (ally_id) REFERENCES champions (id)) WITHOUT ROWID;";
+    private static final String COUNTER_STATS_DDL =
+            "CREATE TABLE IF NOT EXISTS counter_stats (patch INTEGER NOT NULL DEFAULT 0, bracket INTEGER NOT NULL DEFAULT 0, champion_id INTEGER NOT NULL, champion_role INTEGER NOT NULL DEFAULT 0, enemy_id INTEGER NOT NULL, enemy_role INTEGER NOT NULL DEFAULT 0, wins INTEGER NOT NULL, plays INTEGER NOT NULL, PRIMARY KEY (patch, bracket, champion_id, champion_role, enemy_id, enemy_role), FOREIGN KEY (champion_id) REFERENCES champions (id), FOREIGN KEY (enemy_id) REFERENCES champions (id)) WITHOUT ROWID;";
+    private static final String SYNERGY_ROLLUP_DDL =
+            "CREATE TABLE IF NOT EXISTS synergy_rollup (rollup TEXT NOT NULL, champion_id INTEGER NOT NULL, champion_role INTEGER NOT NULL, ally_id INTEGER NOT NULL, ally_role INTEGER NOT NULL, wins INTEGER NOT NULL, plays INTEGER NOT NULL, PRIMARY KEY (rollup, champion_id, champion_role, ally_id, ally_role)) WITHOUT ROWID;";
+    private static final String COUNTER_ROLLUP_DDL =
+            "CREATE TABLE IF NOT EXISTS counter_rollup (rollup TEXT NOT NULL, champion_id INTEGER NOT NULL, champion_role INTEGER NOT NULL, enemy_id INTEGER NOT NULL, enemy_role INTEGER NOT NULL, wins INTEGER NOT NULL, plays INTEGER NOT NULL, PRIMARY KEY (rollup, champion_id, champion_role, enemy_id, enemy_role)) WITHOUT ROWID;";
 
     public static Connection connect() throws SQLException {
         try {
@@ -25,40 +50,274 @@ public class DatabaseManager {
         return conn;
     }
 
+    public static Connection connectReadOnly() throws SQLException {
+        if (!Files.exists(SNAPSHOT_PATH)) {
+            connect().close();
+        }
+        Connection conn = openReadOnly();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version;")) {
+            if (rs.next() && rs.getInt(1) >= SCHEMA_VERSION) {
+                return conn;
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        conn.close();
+        connect().close();
+        return openReadOnly();
+    }
+
+    private static Connection openReadOnly() throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("open_mode", "1");
+        Connection conn = DriverManager.getConnection(DATABASE_URL, properties);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA query_only = ON;");
+            stmt.execute("PRAGMA mmap_size = 268435456;");
+            stmt.execute("PRAGMA cache_size = -65536;");
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+    public static Connection connectStaging(boolean copyLive) throws SQLException {
+        try {
+            Files.createDirectories(STAGING_PATH.getParent());
+            // Bulk runs are not resumable: a staging file left by an interrupted run is only partially loaded,
+            // and its processed/pending state never reached the live database, so it is discarded.
+            if (Files.exists(STAGING_PATH)) {
+                System.out.println("Discarding staging database left by an interrupted bulk run: " + STAGING_PATH);
+            }
+            deleteDatabaseFiles(STAGING_PATH);
+            if (copyLive && Files.exists(SNAPSHOT_PATH)) {
+                Files.copy(SNAPSHOT_PATH, STAGING_PATH);
+            }
+        } catch (IOException e) {
+            throw new SQLException("Failed to prepare staging database", e);
+        }
+        Connection conn = DriverManager.getConnection("jdbc:sqlite:" + STAGING_PATH);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL;");
+            stmt.execute("PRAGMA synchronous = OFF;");
+            stmt.execute("PRAGMA cache_size = -262144;");
+            stmt.execute("PRAGMA temp_store = MEMORY;");
+            createSchema(conn, copyLive);
+            if (!copyLive) {
+                carryOverBrackets(stmt);
+            }
+        }
+        System.out.println("Bulk-loading into " + STAGING_PATH + (copyLive ? " (copied from live snapshot)" : "") + ".");
+        return conn;
+    }
+
+    public static void publishStaging(Connection conn) throws SQLException {
+        conn.setAutoCommit(true);
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : INDEXES) {
+                stmt.execute(sql);
+            }
+            stmt.execute("PRAGMA optimize;");
+            stmt.execute("PRAGMA wal_checkpoint(TRUNCATE);");
+            stmt.execute("PRAGMA journal_mode = DELETE;");
+        }
+        conn.close();
+        try {
+            Files.move(STAGING_PATH, SNAPSHOT_PATH, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Published " + SNAPSHOT_PATH + ".");
+            return;
+        } catch (IOException e) {
+            System.out.println("Atomic rename failed (" + e.getMessage() + "), publishing through the backup API instead...");
+        }
+        try (Connection live = DriverManager.getConnection(DATABASE_URL);
+             Statement stmt = live.createStatement()) {
+            stmt.executeUpdate("restore from '" + STAGING_PATH.toString().replace("'", "''") + "'");
+        }
+        try {
+            deleteDatabaseFiles(STAGING_PATH);
+        } catch (IOException e) {
+            System.err.println("Failed to remove staging database: " + e.getMessage());
+        }
+        System.out.println("Published " + SNAPSHOT_PATH + ".");
+    }
+
+    private static void carryOverBrackets(Statement stmt) throws SQLException {
+        if (!Files.exists(SNAPSHOT_PATH)) return;
+        stmt.execute("ATTACH DATABASE '" + SNAPSHOT_PATH.toString().replace("'", "''") + "' AS live;");
+        try {
+            try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM live.sqlite_master WHERE type = 'table' AND name = 'match_brackets'")) {
+                if (!rs.next()) return;
+            }
+            stmt.execute("INSERT OR IGNORE INTO match_brackets (match_id, bracket) SELECT match_id, bracket FROM live.match_brackets;");
+        } finally {
+            stmt.execute("DETACH DATABASE live;");
+        }
+    }
+
+    private static void deleteDatabaseFiles(Path database) throws IOException {
+        for (String suffix : new String[]{"", "-wal", "-shm", "-journal"}) {
+            Files.deleteIfExists(database.resolveSibling(database.getFileName() + suffix));
+        }
+    }
+
     public static void initializeDatabase(Connection conn) {
+        try {
+            createSchema(conn, true);
+        } catch (SQLException e) {
+            System.err.println("Error initializing database: " + e.getMessage());
+        }
+    }
+
+    private static void createSchema(Connection conn, boolean withIndexes) throws SQLException {
         String[] tables = {
             "CREATE TABLE IF NOT EXISTS champions (id INTEGER PRIMARY KEY, name TEXT NOT NULL UNIQUE);",
-            "CREATE TABLE IF NOT EXISTS champion_stats (champion_id INTEGER PRIMARY KEY, wins INTEGER NOT NULL, plays INTEGER NOT NULL, FOREIGN KEY (champion_id) REFERENCES champions (id));",
-            "CREATE TABLE IF NOT EXISTS role_stats (champion_id INTEGER NOT NULL, role TEXT NOT NULL, plays INTEGER NOT NULL, PRIMARY KEY (champion_id, role), FOREIGN KEY (champion_id) REFERENCES champions (id));",
-            "CREATE TABLE IF NOT EXISTS synergy_stats (champion_id INTEGER NOT NULL, ally_id INTEGER NOT NULL, wins INTEGER NOT NULL, plays INTEGER NOT NULL, PRIMARY KEY (champion_id, ally_id), FOREIGN KEY (champion_id) REFERENCES champions (id), FOREIGN KEY (ally_id) REFERENCES champions (id));",
-            "CREATE TABLE IF NOT EXISTS counter_stats (champion_id INTEGER NOT NULL, enemy_id INTEGER NOT NULL, wins INTEGER NOT NULL, plays INTEGER NOT NULL, PRIMARY KEY (champion_id, enemy_id), FOREIGN KEY (champion_id) REFERENCES champions (id), FOREIGN KEY (enemy_id) REFERENCES champions (id));"
+            CHAMPION_STATS_DDL,
+            ROLE_STATS_DDL,
+            SYNERGY_STATS_DDL,
+            COUNTER_STATS_DDL,
+            "CREATE TABLE IF NOT EXISTS processed_matches (match_id TEXT PRIMARY KEY);",
+            PENDING_MATCHES_DDL,
+            "CREATE TABLE IF NOT EXISTS crawl_frontier (puuid TEXT PRIMARY KEY, platform TEXT NOT NULL, state INTEGER NOT NULL, added_at INTEGER NOT NULL, bracket INTEGER NOT NULL DEFAULT 0, seed INTEGER NOT NULL DEFAULT 0);",
+            "CREATE TABLE IF NOT EXISTS match_brackets (match_id TEXT PRIMARY KEY, bracket INTEGER NOT NULL) WITHOUT ROWID;",
+            "CREATE TABLE IF NOT EXISTS rollup_info (rollup TEXT PRIMARY KEY, patch_window INTEGER NOT NULL, built_at INTEGER NOT NULL);",
+            "CREATE TABLE IF NOT EXISTS champion_rollup (rollup TEXT NOT NULL, champion_id INTEGER NOT NULL, wins INTEGER NOT NULL, plays INTEGER NOT NULL, PRIMARY KEY (rollup, champion_id)) WITHOUT ROWID;",
+            "CREATE TABLE IF NOT EXISTS role_rollup (rollup TEXT NOT NULL, champion_id INTEGER NOT NULL, role TEXT NOT NULL, plays INTEGER NOT NULL, PRIMARY KEY (rollup, champion_id, role)) WITHOUT ROWID;",
+            SYNERGY_ROLLUP_DDL,
+            COUNTER_ROLLUP_DDL
         };
 
         try (Statement stmt = conn.createStatement()) {
             for (String sql : tables) {
                 stmt.execute(sql);
             }
+            migrate(conn, stmt);
+            if (withIndexes) {
+                for (String sql : INDEXES) {
+                    stmt.execute(sql);
+                }
+            }
+        }
+    }
+
+    private static void migrate(Connection conn, Statement stmt) throws SQLException {
+        int version;
+        try (ResultSet rs = stmt.executeQuery("PRAGMA user_version;")) {
+            version = rs.next() ? rs.getInt(1) : 0;
+        }
+        if (version >= SCHEMA_VERSION) return;
+
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            if (version < 1) {
+                addPlatformColumns(stmt);
+                repartition(stmt, "champion_stats", CHAMPION_STATS_DDL, "patch", "champion_id, wins, plays");
+                repartition(stmt, "role_stats", ROLE_STATS_DDL, "patch", "champion_id, role, plays");
+                repartition(stmt, "synergy_stats", SYNERGY_STATS_DDL, "patch", "champion_id, ally_id, wins, plays");
+                repartition(stmt, "counter_stats", COUNTER_STATS_DDL, "patch", "champion_id, enemy_id, wins, plays");
+            }
+            if (version < 2) {
+                repartition(stmt, "champion_stats", CHAMPION_STATS_DDL, "bracket", "patch, champion_id, wins, plays");
+                repartition(stmt, "role_stats", ROLE_STATS_DDL, "bracket", "patch, champion_id, role, plays");
+                repartition(stmt, "synergy_stats", SYNERGY_STATS_DDL, "bracket", "patch, champion_id, ally_id, wins, plays");
+                repartition(stmt, "counter_stats", COUNTER_STATS_DDL, "bracket", "patch, champion_id, enemy_id, wins, plays");
+                if (!hasColumn(stmt, "crawl_frontier", "bracket")) {
+                    stmt.execute("ALTER TABLE crawl_frontier ADD COLUMN bracket INTEGER NOT NULL DEFAULT 0;");
+                }
+            }
+            if (version < 3) {
+                repartition(stmt, "synergy_stats", SYNERGY_STATS_DDL, "ally_role", "patch, bracket, champion_id, ally_id, wins, plays");
+                repartition(stmt, "counter_stats", COUNTER_STATS_DDL, "enemy_role", "patch, bracket, champion_id, enemy_id, wins, plays");
+                if (!hasColumn(stmt, "counter_rollup", "enemy_role")) {
+                    stmt.execute("DROP TABLE synergy_rollup;");
+                    stmt.execute("DROP TABLE counter_rollup;");
+                    stmt.execute(SYNERGY_ROLLUP_DDL);
+                    stmt.execute(COUNTER_ROLLUP_DDL);
+                    stmt.execute("DELETE FROM rollup_info;");
+                }
+            }
+            if (version < 4 && !hasColumn(stmt, "crawl_frontier", "seed")) {
+                // Older crawls let brackets spread transitively and cannot tell seeds apart, so pending players
+                // lose their labels rather than keep passing on a guessed tier.
+                stmt.execute("ALTER TABLE crawl_frontier ADD COLUMN seed INTEGER NOT NULL DEFAULT 0;");
+                stmt.execute("UPDATE crawl_frontier SET bracket = 0 WHERE state = 0;");
+            }
+            stmt.execute("PRAGMA user_version = " + SCHEMA_VERSION + ";");
+            conn.commit();
         } catch (SQLException e) {
-            System.err.println("Error initializing database: " + e.getMessage());
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void repartition(Statement stmt, String table, String ddl, String dimension, String columns) throws SQLException {
+        if (hasColumn(stmt, table, dimension)) return;
+        System.out.println("Migrating " + table + " to " + dimension + "-partitioned rows...");
+        stmt.execute("ALTER TABLE " + table + " RENAME TO " + table + "_unpartitioned;");
+        stmt.execute(ddl);
+        stmt.execute("INSERT INTO " + table + " (" + columns + ") SELECT " + columns + " FROM " + table + "_unpartitioned;");
+        stmt.execute("DROP TABLE " + table + "_unpartitioned;");
+    }
+
+    private static void addPlatformColumns(Statement stmt) throws SQLException {
+        if (!hasColumn(stmt, "pending_matches", "platform")) {
+            System.out.println("Migrating pending_matches to per-platform rounds...");
+            stmt.execute("ALTER TABLE pending_matches RENAME TO pending_matches_unpartitioned;");
+            stmt.execute(PENDING_MATCHES_DDL);
+            stmt.execute("INSERT INTO pending_matches (platform, position, match_id) SELECT '" + LEGACY_PLATFORM + "', position, match_id FROM pending_matches_unpartitioned;");
+            stmt.execute("DROP TABLE pending_matches_unpartitioned;");
+        }
+        if (!hasColumn(stmt, "crawl_frontier", "platform")) {
+            stmt.execute("ALTER TABLE crawl_frontier ADD COLUMN platform TEXT NOT NULL DEFAULT '" + LEGACY_PLATFORM + "';");
         }
     }
 
+    private static boolean hasColumn(Statement stmt, String table, String column) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ");")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     public static void clearData() {
+        try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+            clearData(conn);
+            stmt.execute("VACUUM;");
+        } catch (SQLException e) {
+            System.err.println("Error clearing data: " + e.getMessage());
+        }
+    }
+
+    public static void clearData(Connection conn) throws SQLException {
         String[] tables = {
             "champion_stats",
             "role_stats",
             "synergy_stats",
             "counter_stats",
+            "processed_matches",
+            "pending_matches",
+            "crawl_frontier",
+            "rollup_info",
+            "champion_rollup",
+            "role_rollup",
+            "synergy_rollup",
+            "counter_rollup",
             "champions"
         };
 
-        try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
+        try (Statement stmt = conn.createStatement()) {
             for (String table : tables) {
                 stmt.execute("DELETE FROM " + table + ";");
             }
-            stmt.execute("VACUUM;");
-        } catch (SQLException e) {
-            System.err.println("Error clearing data: " + e.getMessage());
         }
     }
 }
@@ -0,0 +1,131 @@
+package org.example.collector;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class DbToJsonExporter {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static final String CHAMPION_STATS_SQL =
+            "SELECT champion_id, SUM(wins), SUM(plays) FROM champion_stats GROUP BY champion_id ORDER BY champion_id";
+    private static final String ROLE_STATS_SQL =
+            "SELECT champion_id, role, SUM(plays) FROM role_stats GROUP BY champion_id, role ORDER BY champion_id, role";
+    private static final String SYNERGY_STATS_SQL =
+            "SELECT champion_id, ally_id, SUM(wins), SUM(plays) FROM ("
+                    + "SELECT champion_id, ally_id, wins, plays FROM synergy_stats "
+                    + "UNION ALL SELECT ally_id, champion_id, wins, plays FROM synergy_stats WHERE ally_id <> champion_id"
+                    + ") GROUP BY champion_id, ally_id ORDER BY champion_id, ally_id";
+    private static final String COUNTER_STATS_SQL =
+            "SELECT champion_id, enemy_id, SUM(wins), SUM(plays) FROM counter_stats GROUP BY champion_id, enemy_id ORDER BY champion_id, enemy_id";
+
+    public static int export(Connection connection, File jsonFile) throws IOException, SQLException {
+        System.out.println("Exporting SQLite database to JSON snapshot " + jsonFile.getAbsolutePath() + "...");
+        long start = System.nanoTime();
+        Map<Integer, String> names = new TreeMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM champions")) {
+            while (rs.next()) {
+                names.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+
+        int exported = 0;
+        try (Cursor stats = new Cursor(connection, CHAMPION_STATS_SQL);
+             Cursor roles = new Cursor(connection, ROLE_STATS_SQL);
+             Cursor synergy = new Cursor(connection, SYNERGY_STATS_SQL);
+             Cursor counters = new Cursor(connection, COUNTER_STATS_SQL);
+             JsonGenerator json = FACTORY.createGenerator(jsonFile, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeObjectFieldStart("champions");
+            for (Map.Entry<Integer, String> champion : names.entrySet()) {
+                int championId = champion.getKey();
+                String name = champion.getValue();
+                if (!stats.at(championId) && !roles.at(championId) && !synergy.at(championId) && !counters.at(championId)) {
+                    continue;
+                }
+                json.writeObjectFieldStart(name);
+                if (stats.at(championId)) {
+                    json.writeNumberField("wins", stats.rs.getInt(2));
+                    json.writeNumberField("games", stats.rs.getInt(3));
+                    stats.next();
+                }
+                if (roles.at(championId)) {
+                    json.writeObjectFieldStart("roleCounts");
+                    do {
+                        json.writeNumberField(roles.rs.getString(2), roles.rs.getInt(3));
+                    } while (roles.next() && roles.at(championId));
+                    json.writeEndObject();
+                }
+                writePairs(json, "synergy", synergy, championId, names);
+                writePairs(json, "counters", counters, championId, names);
+                json.writeEndObject();
+                exported++;
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+        System.out.printf("Exported %d champions in %.1fs.%n", exported, (System.nanoTime() - start) / 1_000_000_000d);
+        return exported;
+    }
+
+    private static void writePairs(JsonGenerator json, String field, Cursor cursor, int championId, Map<Integer, String> names)
+            throws IOException, SQLException {
+        if (!cursor.at(championId)) return;
+        json.writeObjectFieldStart(field);
+        do {
+            String other = names.get(cursor.rs.getInt(2));
+            int plays = cursor.rs.getInt(4);
+            if (other != null && plays > 0) {
+                json.writeObjectFieldStart(other);
+                json.writeNumberField("wins", cursor.rs.getInt(3));
+                json.writeNumberField("games", plays);
+                json.writeEndObject();
+            }
+        } while (cursor.next() && cursor.at(championId));
+        json.writeEndObject();
+    }
+
+    private static final class Cursor implements AutoCloseable {
+        private final Statement stmt;
+        private final ResultSet rs;
+        private boolean hasRow;
+
+        private Cursor(Connection connection, String sql) throws SQLException {
+            this.stmt = connection.createStatement();
+            this.rs = stmt.executeQuery(sql);
+            this.hasRow = rs.next();
+        }
+
+        private int championId() throws SQLException {
+            return rs.getInt(1);
+        }
+
+        private boolean at(int championId) throws SQLException {
+            while (hasRow && championId() < championId) {
+                hasRow = rs.next();
+            }
+            return hasRow && championId() == championId;
+        }
+
+        private boolean next() throws SQLException {
+            hasRow = rs.next();
+            return hasRow;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try (stmt; rs) {
+            }
+        }
+    }
+}
@@ -1,21 +1,20 @@
 package org.example.collector;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import org.example.collector.dao.ChampionDao;
-import org.example.model.ChampionStats;
-import org.example.model.StatsSnapshot;
-import org.example.model.WinPlay;
+import org.example.util.LongHashSet;
 
 import java.io.File;
 import java.io.IOException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.util.Map;
-import java.util.Set;
-import java.util.HashSet;
-import java.util.AbstractMap;
 
 public class JsonToDbMigrator {
+    private static final JsonFactory FACTORY = new JsonFactory();
+    private static final int BATCH_SIZE = 1_000;
 
     public static void migrate(File jsonFile, Connection connection) throws IOException, SQLException {
         if (!jsonFile.exists()) {
@@ -23,107 +22,209 @@ public class JsonToDbMigrator {
             return;
         }
 
-        ObjectMapper mapper = new ObjectMapper();
-        StatsSnapshot snapshot = mapper.readValue(jsonFile, StatsSnapshot.class);
+        System.out.println("Migrating data from JSON to SQLite database...");
+        long start = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (JsonParser parser = FACTORY.createParser(jsonFile)) {
+            DatabaseManager.clearData(connection);
+            int champions;
+            try (Writer writer = new Writer(connection)) {
+                champions = readSnapshot(parser, writer);
+                writer.flush();
+            }
+            if (champions == 0) {
+                connection.rollback();
+                System.out.println("No data found in JSON snapshot.");
+                return;
+            }
+            connection.commit();
+            System.out.printf("JSON data successfully migrated to SQLite database (%d champions in %.1fs).%n",
+                    champions, (System.nanoTime() - start) / 1_000_000_000d);
+        } catch (IOException | SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static int readSnapshot(JsonParser parser, Writer writer) throws IOException, SQLException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return 0;
+        }
+        int champions = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("champions".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String champion = parser.currentName();
+                    if (parser.nextToken() == JsonToken.START_OBJECT) {
+                        readChampion(parser, writer, champion);
+                        champions++;
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return champions;
+    }
 
-        if (snapshot == null || snapshot.champions().isEmpty()) {
-            System.out.println("No data found in JSON snapshot.");
+    private static void readChampion(JsonParser parser, Writer writer, String champion) throws IOException, SQLException {
+        int championId = writer.championId(champion);
+        int wins = 0;
+        int games = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "wins" -> wins = intValue(parser, value);
+                case "games" -> games = intValue(parser, value);
+                case "roleCounts" -> readRoles(parser, value, writer, championId);
+                case "synergy" -> readPairs(parser, value, writer, championId, true);
+                case "counters" -> readPairs(parser, value, writer, championId, false);
+                default -> parser.skipChildren();
+            }
+        }
+        if (games > 0) {
+            writer.champion(championId, wins, games);
+        }
+    }
+
+    private static void readRoles(JsonParser parser, JsonToken value, Writer writer, int championId) throws IOException, SQLException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
             return;
         }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String role = parser.currentName();
+            writer.role(championId, role, intValue(parser, parser.nextToken()));
+        }
+    }
 
-        System.out.println("Migrating data from JSON to SQLite database...");
+    private static void readPairs(JsonParser parser, JsonToken value, Writer writer, int championId, boolean synergy) throws IOException, SQLException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String other = parser.currentName();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            int wins = 0;
+            int games = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                switch (field) {
+                    case "wins" -> wins = intValue(parser, token);
+                    case "games" -> games = intValue(parser, token);
+                    default -> parser.skipChildren();
+                }
+            }
+            if (games <= 0) continue;
+            int otherId = writer.championId(other);
+            if (synergy) {
+                writer.synergy(championId, otherId, wins, games);
+            } else {
+                writer.counter(championId, otherId, wins, games);
+            }
+        }
+    }
 
-        ChampionDao championDao = new ChampionDao(connection);
+    private static int intValue(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getValueAsInt();
+        }
+        parser.skipChildren();
+        return 0;
+    }
 
-        DatabaseManager.clearData();
+    private static final class Writer implements AutoCloseable {
+        private final ChampionDao championDao;
+        private final PreparedStatement championStmt;
+        private final PreparedStatement roleStmt;
+        private final PreparedStatement synergyStmt;
+        private final PreparedStatement counterStmt;
+        private final LongHashSet synergyPairs = new LongHashSet(1 << 14);
+        private final LongHashSet counterPairs = new LongHashSet(1 << 15);
+        private int pending;
+
+        private Writer(Connection connection) throws SQLException {
+            this.championDao = new ChampionDao(connection);
+            this.championStmt = connection.prepareStatement("INSERT OR REPLACE INTO champion_stats (champion_id, wins, plays) VALUES (?, ?, ?)");
+            this.roleStmt = connection.prepareStatement("INSERT OR REPLACE INTO role_stats (champion_id, role, plays) VALUES (?, ?, ?)");
+            this.synergyStmt = connection.prepareStatement("INSERT OR REPLACE INTO synergy_stats (champion_id, ally_id, wins, plays) VALUES (?, ?, ?, ?)");
+            this.counterStmt = connection.prepareStatement("INSERT OR REPLACE INTO counter_stats (champion_id, enemy_id, wins, plays) VALUES (?, ?, ?, ?)");
+        }
 
-        for (String championName : snapshot.champions().keySet()) {
-            championDao.getOrCreateChampion(championName);
+        private int championId(String name) throws SQLException {
+            return championDao.getOrCreateChampion(name);
         }
 
-        for (Map.Entry<String, ChampionStats> entry : snapshot.champions().entrySet()) {
-            String championName = entry.getKey();
-            ChampionStats championStats = entry.getValue();
+        private void champion(int championId, int wins, int games) throws SQLException {
+            championStmt.setInt(1, championId);
+            championStmt.setInt(2, wins);
+            championStmt.setInt(3, games);
+            championStmt.addBatch();
+            added();
+        }
 
-            int championId = championDao.getOrCreateChampion(championName);
+        private void role(int championId, String role, int plays) throws SQLException {
+            roleStmt.setInt(1, championId);
+            roleStmt.setString(2, role);
+            roleStmt.setInt(3, plays);
+            roleStmt.addBatch();
+            added();
+        }
 
-            if (championStats.getGames() > 0) {
-                String insertChampStatsSql = "INSERT OR REPLACE INTO champion_stats (champion_id, wins, plays) VALUES (?, ?, ?)";
-                try (var pstmt = connection.prepareStatement(insertChampStatsSql)) {
-                    pstmt.setInt(1, championId);
-                    pstmt.setInt(2, championStats.getWins());
-                    pstmt.setInt(3, championStats.getGames());
-                    pstmt.executeUpdate();
-                }
-            }
+        private void synergy(int championId, int allyId, int wins, int games) throws SQLException {
+            int minId = Math.min(championId, allyId);
+            int maxId = Math.max(championId, allyId);
+            if (!synergyPairs.add(LongHashSet.pack(minId, maxId))) return;
+            synergyStmt.setInt(1, minId);
+            synergyStmt.setInt(2, maxId);
+            synergyStmt.setInt(3, wins);
+            synergyStmt.setInt(4, games);
+            synergyStmt.addBatch();
+            added();
+        }
 
-            for (Map.Entry<String, Integer> roleEntry : championStats.getRoleCounts().entrySet()) {
-                String role = roleEntry.getKey();
-                int plays = roleEntry.getValue();
-                String insertRoleStatsSql = "INSERT OR REPLACE INTO role_stats (champion_id, role, plays) VALUES (?, ?, ?)";
-                try (var pstmt = connection.prepareStatement(insertRoleStatsSql)) {
-                    pstmt.setInt(1, championId);
-                    pstmt.setString(2, role);
-                    pstmt.setInt(3, plays);
-                    pstmt.executeUpdate();
-                }
-            }
+        private void counter(int championId, int enemyId, int wins, int games) throws SQLException {
+            if (!counterPairs.add(LongHashSet.pack(championId, enemyId))) return;
+            counterStmt.setInt(1, championId);
+            counterStmt.setInt(2, enemyId);
+            counterStmt.setInt(3, wins);
+            counterStmt.setInt(4, games);
+            counterStmt.addBatch();
+            added();
         }
 
-        Set<String> processedSynergyPairs = new HashSet<>();
-        Set<String> processedCounterPairs = new HashSet<>();
-
-        for (Map.Entry<String, ChampionStats> entry : snapshot.champions().entrySet()) {
-            String championName = entry.getKey();
-            ChampionStats championStats = entry.getValue();
-            int championId = championDao.getOrCreateChampion(championName);
-
-            for (Map.Entry<String, WinPlay> synergyEntry : championStats.getSynergy().entrySet()) {
-                String allyChampName = synergyEntry.getKey();
-                WinPlay winPlay = synergyEntry.getValue();
-                if (winPlay.getGames() > 0) {
-                    int allyId = championDao.getOrCreateChampion(allyChampName);
-                    
-                    int minId = Math.min(championId, allyId);
-                    int maxId = Math.max(championId, allyId);
-                    String canonicalPairKey = minId + "_" + maxId;
-
-                    if (!processedSynergyPairs.contains(canonicalPairKey)) {
-                        String insertSynergySql = "INSERT OR REPLACE INTO synergy_stats (champion_id, ally_id, wins, plays) VALUES (?, ?, ?, ?)";
-                        try (var pstmt = connection.prepareStatement(insertSynergySql)) {
-                            pstmt.setInt(1, minId);
-                            pstmt.setInt(2, maxId);
-                            pstmt.setInt(3, winPlay.getWins());
-                            pstmt.setInt(4, winPlay.getGames());
-                            pstmt.executeUpdate();
-                        }
-                        processedSynergyPairs.add(canonicalPairKey);
-                    }
-                }
+        private void added() throws SQLException {
+            if (++pending >= BATCH_SIZE) {
+                flush();
             }
+        }
 
-            for (Map.Entry<String, WinPlay> counterEntry : championStats.getCounters().entrySet()) {
-                String enemyChampName = counterEntry.getKey();
-                WinPlay winPlay = counterEntry.getValue();
-                if (winPlay.getGames() > 0) {
-                    int enemyId = championDao.getOrCreateChampion(enemyChampName);
-                    
-                    String canonicalPairKey = championId + "_" + enemyId;
-
-                    if (!processedCounterPairs.contains(canonicalPairKey)) {
-                        String insertCounterSql = "INSERT OR REPLACE INTO counter_stats (champion_id, enemy_id, wins, plays) VALUES (?, ?, ?, ?)";
-                        try (var pstmt = connection.prepareStatement(insertCounterSql)) {
-                            pstmt.setInt(1, championId);
-                            pstmt.setInt(2, enemyId);
-                            pstmt.setInt(3, winPlay.getWins());
-                            pstmt.setInt(4, winPlay.getGames());
-                            pstmt.executeUpdate();
-                        }
-                        processedCounterPairs.add(canonicalPairKey);
-                    }
-                }
+        private void flush() throws SQLException {
+            if (pending == 0) return;
+            championStmt.executeBatch();
+            roleStmt.executeBatch();
+            synergyStmt.executeBatch();
+            counterStmt.executeBatch();
+            pending = 0;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try (championStmt; roleStmt; synergyStmt; counterStmt) {
             }
         }
-        System.out.println("JSON data successfully migrated to SQLite database.");
     }
-}
\ No newline at end of file
+}
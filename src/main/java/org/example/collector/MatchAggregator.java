@@ -1,133 +1,284 @@
 package org.example.collector;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.merakianalytics.orianna.types.common.Platform;
-import org.example.collector.dao.ChampionDao;
-import org.example.collector.dao.StatsDao;
+import org.example.model.Bracket;
+import org.example.model.Patch;
+import org.example.util.CollectorMetrics;
 import org.example.util.RiotApiClient;
 
 import java.io.IOException;
-import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class MatchAggregator {
+    private static final int DEFAULT_FETCH_CONCURRENCY = 16;
+    private static final int QUEUE_CAPACITY = 64;
+    private static final FetchedMatch END_OF_FETCH = new FetchedMatch(null, null);
+    private static final ParsedMatch END_OF_PARSE = new ParsedMatch(null, Patch.UNKNOWN, List.of());
+
     private final Platform platform;
     private final RiotApiClient apiClient;
-    private final ChampionDao championDao;
-    private final StatsDao statsDao;
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final StatsAccumulator accumulator;
+    private final MatchCache cache;
+    private final List<Consumer<ParsedMatch>> listeners = new CopyOnWriteArrayList<>();
+    private final MatchParser parser = new MatchParser();
+    private final int fetchConcurrency;
+
+    public MatchAggregator(Platform platform, RiotApiClient apiClient, StatsAccumulator accumulator) {
+        this(platform, apiClient, accumulator, DEFAULT_FETCH_CONCURRENCY, null);
+    }
 
-    public MatchAggregator(Platform platform, RiotApiClient apiClient, Connection connection) {
+    public MatchAggregator(Platform platform, RiotApiClient apiClient, StatsAccumulator accumulator,
+                           int fetchConcurrency, MatchCache cache) {
         this.platform = platform;
         this.apiClient = apiClient;
-        this.championDao = new ChampionDao(connection);
-        this.statsDao = new StatsDao(connection);
+        this.accumulator = accumulator;
+        this.cache = cache;
+        this.fetchConcurrency = Math.max(1, fetchConcurrency);
+    }
+
+    public void addListener(Consumer<ParsedMatch> listener) {
+        listeners.add(listener);
     }
 
     public void aggregate(List<String> matchIds) throws InterruptedException, SQLException {
-        long startNanos = System.nanoTime();
-        int processed = 0;
+        aggregate(matchIds, Map.of());
+    }
 
-        for (String matchId : matchIds) {
-            try {
-                JsonNode match = fetchMatch(matchId);
-                if (match == null) continue;
-                JsonNode info = match.get("info");
-                if (info == null) continue;
-                JsonNode participantsNode = info.get("participants");
-                if (participantsNode == null || !participantsNode.isArray()) continue;
-
-                Map<Integer, List<JsonNode>> byTeam = new HashMap<>();
-                for (JsonNode participant : participantsNode) {
-                    int teamId = participant.path("teamId").asInt();
-                    byTeam.computeIfAbsent(teamId, k -> new ArrayList<>()).add(participant);
-                }
+    public void aggregate(List<String> matchIds, Map<String, Bracket> brackets) throws InterruptedException, SQLException {
+        if (matchIds.isEmpty()) return;
+        BlockingQueue<FetchedMatch> fetched = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        BlockingQueue<ParsedMatch> parsed = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        int workers = Math.min(fetchConcurrency, matchIds.size());
+        AtomicInteger nextIndex = new AtomicInteger();
+        AtomicInteger activeFetchers = new AtomicInteger(workers);
 
-                for (JsonNode participant : participantsNode) {
-                    String champName = participant.path("championName").asText("");
-                    if (champName.isBlank()) continue;
-
-                    int championId = championDao.getOrCreateChampion(champName);
-                    boolean win = participant.path("win").asBoolean(false);
-                    String role = deriveRole(participant);
-
-                    statsDao.upsertChampionStats(championId, win);
-                    statsDao.upsertRoleStats(championId, role);
-
-                    String puuid = participant.path("puuid").asText("");
-                    int teamId = participant.path("teamId").asInt();
-
-                    List<JsonNode> allies = byTeam.getOrDefault(teamId, List.of());
-                    for (JsonNode ally : allies) {
-                        String allyChampName = ally.path("championName").asText("");
-                        if (puuid.equals(ally.path("puuid").asText("")) || allyChampName.isBlank()) {
-                            continue;
-                        }
-                        int allyId = championDao.getOrCreateChampion(allyChampName);
-                        statsDao.upsertSynergyStats(championId, allyId, win);
-                    }
-
-                    for (Map.Entry<Integer, List<JsonNode>> entry : byTeam.entrySet()) {
-                        if (entry.getKey() == teamId) continue;
-                        for (JsonNode enemy : entry.getValue()) {
-                            String enemyChampName = enemy.path("championName").asText("");
-                            if (enemyChampName.isBlank()) continue;
-                            int enemyId = championDao.getOrCreateChampion(enemyChampName);
-                            statsDao.upsertCounterStats(championId, enemyId, win);
-                        }
-                    }
+        ExecutorService fetchers = Executors.newVirtualThreadPerTaskExecutor();
+        Thread parserThread = Thread.ofPlatform().name("match-parser").daemon().unstarted(() -> runParser(fetched, parsed));
+        try {
+            for (int i = 0; i < workers; i++) {
+                fetchers.submit(() -> runFetcher(matchIds, nextIndex, activeFetchers, fetched));
+            }
+            fetchers.shutdown();
+            parserThread.start();
+            runWriter(matchIds.size(), brackets, fetched, parsed);
+        } finally {
+            fetchers.shutdownNow();
+            parserThread.interrupt();
+        }
+    }
+
+    private void runFetcher(List<String> matchIds, AtomicInteger nextIndex, AtomicInteger activeFetchers,
+                            BlockingQueue<FetchedMatch> fetched) {
+        try {
+            int index;
+            while ((index = nextIndex.getAndIncrement()) < matchIds.size()) {
+                String matchId = matchIds.get(index);
+                try {
+                    fetched.put(new FetchedMatch(matchId, fetchMatch(matchId)));
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Failed to fetch match " + matchId + ": " + e.getMessage());
+                    fetched.put(new FetchedMatch(matchId, null));
                 }
-                processed++;
-                if (processed % 50 == 0 || processed == matchIds.size()) {
-                    logAggregationProgress(processed, matchIds.size(), startNanos);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (activeFetchers.decrementAndGet() == 0) {
+                putSentinel(fetched, END_OF_FETCH);
+            }
+        }
+    }
+
+    private void runParser(BlockingQueue<FetchedMatch> fetched, BlockingQueue<ParsedMatch> parsed) {
+        try {
+            while (true) {
+                FetchedMatch match = fetched.take();
+                if (match == END_OF_FETCH) {
+                    return;
                 }
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
-                throw ie;
-            } catch (IOException | SQLException e) {
-                System.err.println("Failed to process match " + matchId + ": " + e.getMessage());
+                parsed.put(parseMatch(match));
             }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            putSentinel(parsed, END_OF_PARSE);
         }
     }
 
-    private void logAggregationProgress(int processed, int total, long startNanos) {
-        double elapsedSeconds = (System.nanoTime() - startNanos) / 1_000_000_000d;
-        double progress = total > 0 ? (double) processed / total : 0d;
-        double remainingSeconds = progress > 0.01 && progress < 1
-                ? (elapsedSeconds / progress) - elapsedSeconds
-                : Double.NaN;
-        String etaPart = Double.isNaN(remainingSeconds) ? "" : String.format(", ETA: %s", formatDuration(remainingSeconds));
-        System.out.printf("Progress: %d/%d (%.1f%%)%s%n", processed, total, progress * 100, etaPart);
+    // An interrupted stage only happens while the pipeline is being torn down, so nobody is left to drain a full queue.
+    private static <T> void putSentinel(BlockingQueue<T> queue, T sentinel) {
+        if (Thread.currentThread().isInterrupted()) {
+            queue.offer(sentinel);
+            return;
+        }
+        try {
+            queue.put(sentinel);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            queue.offer(sentinel);
+        }
     }
 
-    private String formatDuration(double seconds) {
-        if (Double.isNaN(seconds) || Double.isInfinite(seconds)) {
-            return "?";
+    private void runWriter(int total, Map<String, Bracket> brackets, BlockingQueue<FetchedMatch> fetched,
+                           BlockingQueue<ParsedMatch> parsed) throws InterruptedException, SQLException {
+        ProgressTracker progress = new ProgressTracker(platform.getTag(), total);
+        String platformLabel = CollectorMetrics.label("platform", platform.getTag());
+        while (true) {
+            ParsedMatch match = parsed.take();
+            if (match == END_OF_PARSE) break;
+            if (!match.participants().isEmpty()) {
+                long writeStart = System.nanoTime();
+                try {
+                    accumulator.record(match, brackets.getOrDefault(match.matchId(), Bracket.UNKNOWN));
+                } catch (SQLException e) {
+                    System.err.println("Failed to process match " + match.matchId() + ": " + e.getMessage());
+                }
+                listeners.forEach(listener -> listener.accept(match));
+                accumulator.matchCompleted();
+                CollectorMetrics.observeNanos("collector_write_seconds", platformLabel, System.nanoTime() - writeStart);
+                CollectorMetrics.increment("collector_matches_total", platformLabel);
+            } else {
+                CollectorMetrics.increment("collector_matches_failed_total", platformLabel);
+            }
+            int fetchedDepth = fetched.size();
+            int parsedDepth = parsed.size();
+            CollectorMetrics.setGauge("collector_queue_depth", platformLabel + "," + CollectorMetrics.label("queue", "fetched"), fetchedDepth);
+            CollectorMetrics.setGauge("collector_queue_depth", platformLabel + "," + CollectorMetrics.label("queue", "parsed"), parsedDepth);
+            progress.advance(fetchedDepth, parsedDepth);
         }
-        if (seconds >= 60) {
-            long minutes = (long) (seconds / 60);
-            double remainder = seconds - minutes * 60;
-            return String.format("%dm %.0fs", minutes, remainder);
+        progress.finish();
+    }
+
+    private ParsedMatch parseMatch(FetchedMatch fetchedMatch) {
+        if (fetchedMatch.body() == null) {
+            return new ParsedMatch(fetchedMatch.matchId(), Patch.UNKNOWN, List.of());
+        }
+        long parseStart = System.nanoTime();
+        try {
+            ParsedMatch match = parser.parse(fetchedMatch.matchId(), fetchedMatch.body());
+            CollectorMetrics.observeNanos("collector_parse_seconds", null, System.nanoTime() - parseStart);
+            return match;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to parse match " + fetchedMatch.matchId() + ": " + e.getMessage());
+            return new ParsedMatch(fetchedMatch.matchId(), Patch.UNKNOWN, List.of());
         }
-        return String.format("%.1fs", seconds);
     }
 
-    private JsonNode fetchMatch(String matchId) throws IOException, InterruptedException {
+    private byte[] fetchMatch(String matchId) throws IOException, InterruptedException {
+        if (cache != null) {
+            byte[] cached = readCached(matchId);
+            if (cached != null) {
+                CollectorMetrics.increment("collector_cache_hits_total", null);
+                return cached;
+            }
+        }
+        if (apiClient == null) {
+            throw new IOException("not in match cache and no API client available");
+        }
         String regionHost = MatchFetcher.routingHostForPlatform(platform);
         String url = "https://" + regionHost + "/lol/match/v5/matches/" + matchId;
-        String body = apiClient.get(url);
-        return mapper.readTree(body);
+        byte[] body = apiClient.getBytes(url);
+        if (cache != null) {
+            try {
+                cache.write(matchId, body);
+            } catch (IOException e) {
+                System.err.println("Failed to cache match " + matchId + ": " + e.getMessage());
+            }
+        }
+        return body;
     }
 
-    private String deriveRole(JsonNode participant) {
-        String role = participant.path("teamPosition").asText("");
-        if (role.isBlank()) role = participant.path("role").asText("");
-        if (role.isBlank()) role = participant.path("lane").asText("");
-        return role == null ? "" : role.toUpperCase();
+    // A truncated or corrupt cache entry is dropped and re-fetched; only replay, which has no API to fall back on,
+    // reports it as a failure.
+    private byte[] readCached(String matchId) throws IOException {
+        try {
+            return cache.read(matchId);
+        } catch (IOException e) {
+            if (apiClient == null) {
+                throw e;
+            }
+            System.err.println("Discarding unreadable cached match " + matchId + ": " + e.getMessage());
+            try {
+                cache.delete(matchId);
+            } catch (IOException deleteError) {
+                System.err.println("Failed to remove cached match " + matchId + ": " + deleteError.getMessage());
+            }
+            return null;
+        }
+    }
+
+    private record FetchedMatch(String matchId, byte[] body) { }
+
+    private static final class ProgressTracker {
+        private static final long REPORT_INTERVAL_NANOS = 5_000_000_000L;
+        private static final double RATE_SMOOTHING = 0.3;
+
+        private final String label;
+        private final int total;
+        private final long startNanos = System.nanoTime();
+        private long lastReportNanos = startNanos;
+        private int lastReportProcessed;
+        private int processed;
+        private double smoothedRate = Double.NaN;
+
+        private ProgressTracker(String label, int total) {
+            this.label = label;
+            this.total = total;
+        }
+
+        private void advance(int fetchedDepth, int parsedDepth) {
+            processed++;
+            long now = System.nanoTime();
+            if (processed % 50 == 0 || now - lastReportNanos >= REPORT_INTERVAL_NANOS) {
+                report(now, fetchedDepth, parsedDepth);
+            }
+        }
+
+        private void finish() {
+            report(System.nanoTime(), 0, 0);
+        }
+
+        private void report(long now, int fetchedDepth, int parsedDepth) {
+            double intervalSeconds = (now - lastReportNanos) / 1_000_000_000d;
+            if (intervalSeconds > 0) {
+                double intervalRate = (processed - lastReportProcessed) / intervalSeconds;
+                smoothedRate = Double.isNaN(smoothedRate)
+                        ? intervalRate
+                        : RATE_SMOOTHING * intervalRate + (1 - RATE_SMOOTHING) * smoothedRate;
+            }
+            lastReportNanos = now;
+            lastReportProcessed = processed;
+
+            double elapsedSeconds = (now - startNanos) / 1_000_000_000d;
+            double progress = total > 0 ? (double) processed / total : 0d;
+            double remainingSeconds = smoothedRate > 0 && processed < total
+                    ? (total - processed) / smoothedRate
+                    : Double.NaN;
+            String etaPart = Double.isNaN(remainingSeconds) ? "" : String.format(", ETA: %s", formatDuration(remainingSeconds));
+            System.out.printf("Progress [%s]: %d/%d (%.1f%%), %.2f matches/s, elapsed %s, queued fetched=%d parsed=%d%s%n",
+                    label, processed, total, progress * 100, Double.isNaN(smoothedRate) ? 0d : smoothedRate,
+                    formatDuration(elapsedSeconds), fetchedDepth, parsedDepth, etaPart);
+        }
+
+        private static String formatDuration(double seconds) {
+            if (Double.isNaN(seconds) || Double.isInfinite(seconds)) {
+                return "?";
+            }
+            if (seconds >= 60) {
+                long minutes = (long) (seconds / 60);
+                double remainder = seconds - minutes * 60;
+                return String.format("%dm %.0fs", minutes, remainder);
+            }
+            return String.format("%.1fs", seconds);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package org.example.collector;
+
+import org.example.util.AppPaths;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class MatchCache {
+    private static final String SUFFIX = ".json.gz";
+
+    private final Path root;
+
+    public MatchCache(Path root) {
+        this.root = root;
+    }
+
+    public static MatchCache defaultCache() {
+        String override = System.getProperty("MATCH_CACHE_DIR", System.getenv("MATCH_CACHE_DIR"));
+        Path root = override == null || override.isBlank()
+                ? AppPaths.locateDataDir().resolve("match-cache")
+                : Path.of(override);
+        return new MatchCache(root);
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    public byte[] read(String matchId) throws IOException {
+        Path file = pathFor(matchId);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 16 * 1024)) {
+            return in.readAllBytes();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    public void write(String matchId, byte[] body) throws IOException {
+        Path file = pathFor(matchId);
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), matchId, ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 16 * 1024)) {
+                out.write(body);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public void delete(String matchId) throws IOException {
+        Files.deleteIfExists(pathFor(matchId));
+    }
+
+    public List<String> matchIds() throws IOException {
+        List<String> ids = new ArrayList<>();
+        if (!Files.isDirectory(root)) {
+            return ids;
+        }
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            files.filter(Files::isRegularFile)
+                 .map(path -> path.getFileName().toString())
+                 .filter(name -> name.endsWith(SUFFIX))
+                 .map(name -> name.substring(0, name.length() - SUFFIX.length()))
+                 .sorted()
+                 .forEach(ids::add);
+        }
+        return ids;
+    }
+
+    private Path pathFor(String matchId) {
+        String shard = String.format("%02x", (matchId.hashCode() >>> 24) & 0xFF);
+        return root.resolve(shard).resolve(matchId + SUFFIX);
+    }
+}
@@ -0,0 +1,199 @@
+package org.example.collector;
+
+import com.merakianalytics.orianna.types.common.Platform;
+import com.merakianalytics.orianna.types.common.Queue;
+import org.example.collector.dao.FrontierDao;
+import org.example.collector.dao.MatchLogDao;
+import org.example.model.Bracket;
+import org.example.util.BloomFilter;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+public class MatchCrawler {
+    private static final int IDS_PER_PLAYER = 100;
+    private static final long EXPECTED_PLAYERS = 2_000_000L;
+    private static final long EXPECTED_MATCHES = 2_000_000L;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final Connection connection;
+    private final String platform;
+    private final String logPrefix;
+    private final MatchFetcher fetcher;
+    private final MatchAggregator aggregator;
+    private final StatsAccumulator accumulator;
+    private final FrontierDao frontier;
+    private final MatchLogDao matchLog;
+    private final int parallelism;
+    private final int playersPerRound;
+    private final BloomFilter seenPlayers = new BloomFilter(EXPECTED_PLAYERS, FALSE_POSITIVE_RATE);
+    private final BloomFilter seenMatches = new BloomFilter(EXPECTED_MATCHES, FALSE_POSITIVE_RATE);
+    private final Map<String, Bracket> discoveredPlayers = new LinkedHashMap<>();
+    private final Set<String> seedMatches = new HashSet<>();
+    private Map<String, Bracket> roundBrackets = Map.of();
+
+    public MatchCrawler(Connection connection, Platform platform, MatchFetcher fetcher, MatchAggregator aggregator,
+                        StatsAccumulator accumulator, int parallelism, int playersPerRound) {
+        this.connection = connection;
+        this.platform = platform.getTag();
+        this.logPrefix = "[MatchCrawler " + this.platform + "] ";
+        this.fetcher = fetcher;
+        this.aggregator = aggregator;
+        this.accumulator = accumulator;
+        this.frontier = new FrontierDao(connection);
+        this.matchLog = new MatchLogDao(connection);
+        this.parallelism = Math.max(1, parallelism);
+        this.playersPerRound = Math.max(1, playersPerRound);
+        aggregator.addListener(this::onMatch);
+    }
+
+    public int crawl(Queue queue, int limit, int seeds) throws InterruptedException, SQLException {
+        Map<String, Bracket> pending = accumulator.exclusive(() -> {
+            frontier.forEachPuuid(platform, seenPlayers::put);
+            matchLog.forEachProcessedId(seenMatches::put);
+            return matchLog.loadPending(platform);
+        });
+
+        int collected = 0;
+        if (!pending.isEmpty()) {
+            System.out.println(logPrefix + "Resuming interrupted round with " + pending.size() + " pending matches...");
+            pending.keySet().forEach(seenMatches::put);
+            runRound(pending);
+            collected += pending.size();
+        }
+
+        if (accumulator.exclusive(() -> frontier.countPending(platform)) == 0) {
+            System.out.println(logPrefix + "Frontier empty, seeding from league entries...");
+            addPlayers(fetcher.fetchTierSeeds(queue, seeds));
+            accumulator.exclusive(() -> {
+                frontier.addAll(platform, discoveredPlayers, true);
+                connection.commit();
+                return null;
+            });
+            discoveredPlayers.clear();
+        }
+
+        long startNanos = System.nanoTime();
+        int round = 0;
+        while (collected < limit) {
+            Map<String, FrontierDao.Player> players = accumulator.exclusive(() -> frontier.nextBatch(platform, playersPerRound));
+            if (players.isEmpty()) {
+                System.out.println(logPrefix + "Frontier exhausted.");
+                break;
+            }
+            round++;
+            Map<String, Bracket> matchIds = fetchNewMatchIds(players, queue, limit - collected);
+            accumulator.exclusive(() -> {
+                frontier.markCrawled(players.keySet());
+                matchLog.replacePending(platform, matchIds);
+                connection.commit();
+                return null;
+            });
+
+            try {
+                runRound(matchIds);
+            } finally {
+                seedMatches.clear();
+            }
+            collected += matchIds.size();
+            double elapsed = (System.nanoTime() - startNanos) / 1_000_000_000d;
+            int frontierPending = accumulator.exclusive(() -> frontier.countPending(platform));
+            System.out.printf("%sRound %d: %d players -> %d new matches (total %d/%d), frontier %d pending, elapsed %.0fs%n",
+                    logPrefix, round, players.size(), matchIds.size(), collected, limit, frontierPending, elapsed);
+        }
+        return collected;
+    }
+
+    private void runRound(Map<String, Bracket> matchIds) throws InterruptedException, SQLException {
+        roundBrackets = matchIds;
+        try {
+            aggregator.aggregate(new ArrayList<>(matchIds.keySet()), matchIds);
+        } finally {
+            roundBrackets = Map.of();
+        }
+        accumulator.exclusive(() -> {
+            frontier.addAll(platform, discoveredPlayers, false);
+            accumulator.checkpoint();
+            matchLog.clearPending(platform);
+            connection.commit();
+            return null;
+        });
+        discoveredPlayers.clear();
+    }
+
+    private Map<String, Bracket> fetchNewMatchIds(Map<String, FrontierDao.Player> players, Queue queue, int remaining) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(parallelism);
+        List<Future<List<String>>> lists = new ArrayList<>(players.size());
+        List<FrontierDao.Player> sources = new ArrayList<>(players.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Map.Entry<String, FrontierDao.Player> player : players.entrySet()) {
+                String puuid = player.getKey();
+                sources.add(player.getValue());
+                lists.add(executor.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        return fetcher.fetchMatchIdsForPuuid(puuid, queue, IDS_PER_PLAYER);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+        }
+
+        Map<String, Bracket> matchIds = new LinkedHashMap<>();
+        for (int i = 0; i < lists.size(); i++) {
+            try {
+                for (String matchId : lists.get(i).get()) {
+                    if (matchIds.size() >= remaining) break;
+                    if (seenMatches.put(matchId)) {
+                        FrontierDao.Player source = sources.get(i);
+                        matchIds.put(matchId, source.bracket());
+                        if (source.seed()) {
+                            seedMatches.add(matchId);
+                        }
+                    }
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (!(cause instanceof IOException)) {
+                    System.err.println(logPrefix + "Unexpected failure fetching match ids: " + cause);
+                }
+            }
+        }
+        return matchIds;
+    }
+
+    // Only a seed's tier comes from league-v4; players met in a seed's matches inherit it one hop out, everyone
+    // further away is stored unlabelled so the bracket cannot drift through the crawl.
+    private void onMatch(ParsedMatch match) {
+        Bracket bracket = seedMatches.contains(match.matchId())
+                ? roundBrackets.getOrDefault(match.matchId(), Bracket.UNKNOWN)
+                : Bracket.UNKNOWN;
+        for (MatchParticipant participant : match.participants()) {
+            String puuid = participant.puuid();
+            if (puuid != null && !puuid.isBlank() && seenPlayers.put(puuid)) {
+                discoveredPlayers.put(puuid, bracket);
+            }
+        }
+    }
+
+    private void addPlayers(Map<String, Bracket> players) {
+        players.forEach((puuid, bracket) -> {
+            if (seenPlayers.put(puuid)) {
+                discoveredPlayers.put(puuid, bracket);
+            }
+        });
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.collector;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.example.model.Patch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MatchParser {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private final TextCache textCache = new TextCache(512);
+
+    public ParsedMatch parse(String matchId, byte[] body) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return new ParsedMatch(matchId, Patch.UNKNOWN, List.of());
+            }
+            ParsedMatch match = new ParsedMatch(matchId, Patch.UNKNOWN, List.of());
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("info".equals(field) && value == JsonToken.START_OBJECT) {
+                    match = readInfo(matchId, parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return match;
+        }
+    }
+
+    private ParsedMatch readInfo(String matchId, JsonParser parser) throws IOException {
+        List<MatchParticipant> participants = List.of();
+        int patch = Patch.UNKNOWN;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("participants".equals(field) && value == JsonToken.START_ARRAY) {
+                participants = new ArrayList<>(10);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    participants.add(readParticipant(parser));
+                }
+            } else if ("gameVersion".equals(field) && value == JsonToken.VALUE_STRING) {
+                patch = Patch.parse(parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new ParsedMatch(matchId, patch, participants);
+    }
+
+    private MatchParticipant readParticipant(JsonParser parser) throws IOException {
+        String championName = "";
+        boolean win = false;
+        int teamId = 0;
+        String teamPosition = "";
+        String role = "";
+        String lane = "";
+        String puuid = "";
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "championName" -> championName = cachedText(parser, value);
+                case "win" -> win = value == JsonToken.VALUE_TRUE;
+                case "teamId" -> teamId = value == JsonToken.VALUE_NUMBER_INT ? parser.getIntValue() : 0;
+                case "teamPosition" -> teamPosition = cachedText(parser, value);
+                case "role" -> role = cachedText(parser, value);
+                case "lane" -> lane = cachedText(parser, value);
+                case "puuid" -> puuid = value == JsonToken.VALUE_STRING ? parser.getText() : "";
+                default -> parser.skipChildren();
+            }
+        }
+        String resolvedRole = !teamPosition.isBlank() ? teamPosition : !role.isBlank() ? role : lane;
+        return new MatchParticipant(championName, win, teamId, resolvedRole.toUpperCase(), puuid);
+    }
+
+    private String cachedText(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_STRING) {
+            return "";
+        }
+        return textCache.lookup(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+    }
+
+    private static final class TextCache {
+        private final String[] entries;
+        private final int mask;
+
+        private TextCache(int capacity) {
+            int size = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+            this.entries = new String[size];
+            this.mask = size - 1;
+        }
+
+        private String lookup(char[] chars, int offset, int length) {
+            if (length == 0) return "";
+            int hash = 0;
+            for (int i = offset; i < offset + length; i++) {
+                hash = 31 * hash + chars[i];
+            }
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            String cached = entries[slot];
+            if (cached != null && matches(cached, chars, offset, length)) {
+                return cached;
+            }
+            String text = new String(chars, offset, length);
+            entries[slot] = text;
+            return text;
+        }
+
+        private static boolean matches(String cached, char[] chars, int offset, int length) {
+            if (cached.length() != length) return false;
+            for (int i = 0; i < length; i++) {
+                if (cached.charAt(i) != chars[offset + i]) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,3 @@
+package org.example.collector;
+
+public record MatchParticipant(String championName, boolean win, int teamId, String role, String puuid) { }
@@ -0,0 +1,5 @@
+package org.example.collector;
+
+import java.util.List;
+
+public record ParsedMatch(String matchId, int patch, List<MatchParticipant> participants) { }
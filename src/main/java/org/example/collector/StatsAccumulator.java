@@ -0,0 +1,306 @@
+package org.example.collector;
+
+import org.example.collector.dao.ChampionDao;
+import org.example.collector.dao.MatchLogDao;
+import org.example.collector.dao.StatsBatchWriter;
+import org.example.collector.dao.StatsDao;
+import org.example.model.Bracket;
+import org.example.model.Role;
+import org.example.util.CollectorMetrics;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class StatsAccumulator implements AutoCloseable {
+    private static final int INITIAL_CAPACITY = 192;
+    private static final int INITIAL_ROLE_CAPACITY = 8;
+
+    private final ChampionDao championDao;
+    private final StatsBatchWriter batch;
+    private final MatchLogDao matchLog;
+    private final int checkpointEveryMatches;
+    private final Map<String, Integer> roleIndex = new HashMap<>();
+    private final List<String> roleNames = new ArrayList<>();
+    private final List<String> recordedMatchIds = new ArrayList<>();
+    private final Map<SliceKey, Slice> slices = new HashMap<>();
+
+    private int pendingMatches;
+    private int[] championIdScratch = new int[10];
+    private int[] laneScratch = new int[10];
+    private boolean failed;
+
+    public StatsAccumulator(Connection connection, int checkpointEveryMatches) throws SQLException {
+        this.championDao = new ChampionDao(connection);
+        this.batch = new StatsDao(connection).batchWriter();
+        this.matchLog = new MatchLogDao(connection);
+        this.checkpointEveryMatches = Math.max(1, checkpointEveryMatches);
+    }
+
+    public synchronized void record(ParsedMatch match, Bracket bracket) throws SQLException {
+        List<MatchParticipant> participants = match.participants();
+        int size = participants.size();
+        if (championIdScratch.length < size) {
+            championIdScratch = new int[size];
+            laneScratch = new int[size];
+        }
+        Slice slice = slices.computeIfAbsent(new SliceKey(match.patch(), bracket.code()),
+                key -> new Slice(INITIAL_CAPACITY, INITIAL_ROLE_CAPACITY));
+        int[] championIds = championIdScratch;
+        int[] lanes = laneScratch;
+        for (int i = 0; i < size; i++) {
+            MatchParticipant participant = participants.get(i);
+            String name = participant.championName();
+            championIds[i] = name.isBlank() ? -1 : championDao.getOrCreateChampion(name);
+            lanes[i] = Role.fromLane(participant.role()).code();
+            slice.ensureCapacity(championIds[i]);
+        }
+
+        for (int i = 0; i < size; i++) {
+            int championId = championIds[i];
+            if (championId < 0) continue;
+            MatchParticipant participant = participants.get(i);
+            int win = participant.win() ? 1 : 0;
+
+            slice.championWins[championId] += win;
+            slice.championPlays[championId]++;
+            String role = participant.role();
+            if (role != null && !role.isBlank()) {
+                int index = roleIndex(role);
+                slice.ensureRoleCapacity(index);
+                slice.roleCounts[championId][index]++;
+            }
+
+            for (int j = 0; j < size; j++) {
+                int otherId = championIds[j];
+                if (otherId < 0) continue;
+                MatchParticipant other = participants.get(j);
+                if (other.teamId() == participant.teamId()) {
+                    if (participant.puuid().equals(other.puuid())) continue;
+                    if (championId <= otherId) {
+                        slice.synergy.add(PairCounts.key(championId, lanes[i], otherId, lanes[j]), win);
+                    } else {
+                        slice.synergy.add(PairCounts.key(otherId, lanes[j], championId, lanes[i]), win);
+                    }
+                } else {
+                    slice.counters.add(PairCounts.key(championId, lanes[i], otherId, lanes[j]), win);
+                }
+            }
+        }
+        recordedMatchIds.add(match.matchId());
+    }
+
+    public synchronized <T> T exclusive(SqlWork<T> work) throws SQLException {
+        return work.run();
+    }
+
+    public synchronized void matchCompleted() throws SQLException {
+        pendingMatches++;
+        if (pendingMatches >= checkpointEveryMatches) {
+            checkpoint();
+        }
+    }
+
+    public synchronized void checkpoint() throws SQLException {
+        if (failed) return;
+        long start = System.nanoTime();
+        try {
+            for (Map.Entry<SliceKey, Slice> entry : slices.entrySet()) {
+                addToBatch(entry.getKey().patch(), entry.getKey().bracket(), entry.getValue());
+            }
+            matchLog.addProcessed(recordedMatchIds);
+            batch.flush();
+        } catch (SQLException | RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+        CollectorMetrics.observeNanos("collector_checkpoint_seconds", null, System.nanoTime() - start);
+        slices.clear();
+        recordedMatchIds.clear();
+        pendingMatches = 0;
+    }
+
+    @Override
+    public synchronized void close() throws SQLException {
+        try {
+            checkpoint();
+        } finally {
+            batch.close();
+        }
+    }
+
+    private void addToBatch(int patch, int bracket, Slice slice) {
+        for (int id = 0; id < slice.capacity; id++) {
+            if (slice.championPlays[id] != 0) {
+                batch.addChampion(patch, bracket, id, slice.championWins[id], slice.championPlays[id]);
+            }
+            for (int role = 0; role < roleNames.size() && role < slice.roleCounts[id].length; role++) {
+                if (slice.roleCounts[id][role] != 0) {
+                    batch.addRole(patch, bracket, id, roleNames.get(role), slice.roleCounts[id][role]);
+                }
+            }
+        }
+        PairCounts synergy = slice.synergy;
+        for (int i = 0; i < synergy.keys.length; i++) {
+            long key = synergy.keys[i];
+            if (key != PairCounts.EMPTY) {
+                batch.addSynergy(patch, bracket, PairCounts.champion(key), PairCounts.role(key),
+                        PairCounts.otherChampion(key), PairCounts.otherRole(key), synergy.wins[i], synergy.plays[i]);
+            }
+        }
+        PairCounts counters = slice.counters;
+        for (int i = 0; i < counters.keys.length; i++) {
+            long key = counters.keys[i];
+            if (key != PairCounts.EMPTY) {
+                batch.addCounter(patch, bracket, PairCounts.champion(key), PairCounts.role(key),
+                        PairCounts.otherChampion(key), PairCounts.otherRole(key), counters.wins[i], counters.plays[i]);
+            }
+        }
+    }
+
+    private int roleIndex(String role) {
+        Integer index = roleIndex.get(role);
+        if (index != null) {
+            return index;
+        }
+        int next = roleNames.size();
+        roleNames.add(role);
+        roleIndex.put(role, next);
+        return next;
+    }
+
+    private record SliceKey(int patch, int bracket) { }
+
+    private static final class Slice {
+        private final PairCounts synergy = new PairCounts();
+        private final PairCounts counters = new PairCounts();
+        private int capacity;
+        private int[] championWins;
+        private int[] championPlays;
+        private int[][] roleCounts;
+
+        private Slice(int capacity, int roleCapacity) {
+            allocate(capacity, roleCapacity);
+        }
+
+        private void ensureCapacity(int championId) {
+            if (championId < capacity) return;
+            int newCapacity = capacity;
+            while (newCapacity <= championId) {
+                newCapacity *= 2;
+            }
+            allocate(newCapacity, roleCounts[0].length);
+        }
+
+        private void ensureRoleCapacity(int roleIndex) {
+            int roleCapacity = roleCounts[0].length;
+            if (roleIndex < roleCapacity) return;
+            while (roleCapacity <= roleIndex) {
+                roleCapacity *= 2;
+            }
+            allocate(capacity, roleCapacity);
+        }
+
+        private void allocate(int newCapacity, int roleCapacity) {
+            int[] newChampionWins = new int[newCapacity];
+            int[] newChampionPlays = new int[newCapacity];
+            int[][] newRoleCounts = new int[newCapacity][roleCapacity];
+            for (int id = 0; id < capacity; id++) {
+                newChampionWins[id] = championWins[id];
+                newChampionPlays[id] = championPlays[id];
+                System.arraycopy(roleCounts[id], 0, newRoleCounts[id], 0, roleCounts[id].length);
+            }
+            capacity = newCapacity;
+            championWins = newChampionWins;
+            championPlays = newChampionPlays;
+            roleCounts = newRoleCounts;
+        }
+    }
+
+    private static final class PairCounts {
+        private static final long EMPTY = -1L;
+        private static final int ROLE_BITS = 3;
+        private static final int ROLE_MASK = (1 << ROLE_BITS) - 1;
+
+        private long[] keys = newKeys(1024);
+        private int[] wins = new int[1024];
+        private int[] plays = new int[1024];
+        private int size;
+
+        private static long key(int championId, int role, int otherId, int otherRole) {
+            long side = ((long) championId << ROLE_BITS) | role;
+            long other = ((long) otherId << ROLE_BITS) | otherRole;
+            return (side << 32) | other;
+        }
+
+        private static int champion(long key) {
+            return (int) (key >>> (32 + ROLE_BITS));
+        }
+
+        private static int role(long key) {
+            return (int) (key >>> 32) & ROLE_MASK;
+        }
+
+        private static int otherChampion(long key) {
+            return (int) (key & 0xFFFFFFFFL) >>> ROLE_BITS;
+        }
+
+        private static int otherRole(long key) {
+            return (int) key & ROLE_MASK;
+        }
+
+        private void add(long key, int win) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                rehash(keys.length * 2);
+            }
+            int slot = slot(keys, key);
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                size++;
+            }
+            wins[slot] += win;
+            plays[slot]++;
+        }
+
+        private void rehash(int newLength) {
+            long[] oldKeys = keys;
+            int[] oldWins = wins;
+            int[] oldPlays = plays;
+            keys = newKeys(newLength);
+            wins = new int[newLength];
+            plays = new int[newLength];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = slot(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    wins[slot] = oldWins[i];
+                    plays[slot] = oldPlays[i];
+                }
+            }
+        }
+
+        private static int slot(long[] keys, long key) {
+            int mask = keys.length - 1;
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private static long[] newKeys(int length) {
+            long[] keys = new long[length];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+    }
+
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.collector.dao;
+
+import org.example.model.Bracket;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class FrontierDao {
+    private static final int STATE_PENDING = 0;
+    private static final int STATE_CRAWLED = 1;
+
+    private final Connection connection;
+
+    public FrontierDao(Connection connection) {
+        this.connection = connection;
+    }
+
+    public void addAll(String platform, Map<String, Bracket> players, boolean seed) throws SQLException {
+        if (players.isEmpty()) return;
+        String sql = "INSERT OR IGNORE INTO crawl_frontier (puuid, platform, state, added_at, bracket, seed) VALUES (?, ?, " + STATE_PENDING + ", ?, ?, " + (seed ? 1 : 0) + ")";
+        long now = System.currentTimeMillis();
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (Map.Entry<String, Bracket> player : players.entrySet()) {
+                pstmt.setString(1, player.getKey());
+                pstmt.setString(2, platform);
+                pstmt.setLong(3, now);
+                pstmt.setInt(4, player.getValue().code());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    public Map<String, Player> nextBatch(String platform, int size) throws SQLException {
+        Map<String, Player> players = new LinkedHashMap<>();
+        String sql = "SELECT puuid, bracket, seed FROM crawl_frontier WHERE platform = ? AND state = " + STATE_PENDING + " ORDER BY added_at, rowid LIMIT ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, platform);
+            pstmt.setInt(2, size);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    players.put(rs.getString(1), new Player(Bracket.fromCode(rs.getInt(2)), rs.getInt(3) != 0));
+                }
+            }
+        }
+        return players;
+    }
+
+    public void markCrawled(Collection<String> puuids) throws SQLException {
+        if (puuids.isEmpty()) return;
+        try (PreparedStatement pstmt = connection.prepareStatement("UPDATE crawl_frontier SET state = " + STATE_CRAWLED + " WHERE puuid = ?")) {
+            for (String puuid : puuids) {
+                pstmt.setString(1, puuid);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    public int countPending(String platform) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT COUNT(*) FROM crawl_frontier WHERE platform = ? AND state = " + STATE_PENDING)) {
+            pstmt.setString(1, platform);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    public void forEachPuuid(String platform, Consumer<String> consumer) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("SELECT puuid FROM crawl_frontier WHERE platform = ?")) {
+            pstmt.setString(1, platform);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs.getString(1));
+                }
+            }
+        }
+    }
+
+    public record Player(Bracket bracket, boolean seed) {
+    }
+}
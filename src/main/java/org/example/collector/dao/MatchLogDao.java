@@ -0,0 +1,104 @@
+package org.example.collector.dao;
+
+import org.example.model.Bracket;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class MatchLogDao {
+    private final Connection connection;
+
+    public MatchLogDao(Connection connection) {
+        this.connection = connection;
+    }
+
+    public void forEachProcessedId(Consumer<String> consumer) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT match_id FROM processed_matches")) {
+            while (rs.next()) {
+                consumer.accept(rs.getString(1));
+            }
+        }
+    }
+
+    public void addProcessed(Collection<String> matchIds) throws SQLException {
+        if (matchIds.isEmpty()) return;
+        try (PreparedStatement pstmt = connection.prepareStatement("INSERT OR IGNORE INTO processed_matches (match_id) VALUES (?)")) {
+            for (String matchId : matchIds) {
+                pstmt.setString(1, matchId);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    public Map<String, Bracket> loadPending(String platform) throws SQLException {
+        Map<String, Bracket> pending = new LinkedHashMap<>();
+        String sql = "SELECT p.match_id, b.bracket FROM pending_matches p " +
+                     "LEFT JOIN match_brackets b ON b.match_id = p.match_id " +
+                     "WHERE p.platform = ? AND NOT EXISTS (SELECT 1 FROM processed_matches m WHERE m.match_id = p.match_id) " +
+                     "ORDER BY p.position";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, platform);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    pending.put(rs.getString(1), Bracket.fromCode(rs.getInt(2)));
+                }
+            }
+        }
+        return pending;
+    }
+
+    public Map<String, Bracket> loadBrackets() throws SQLException {
+        Map<String, Bracket> brackets = new HashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT match_id, bracket FROM match_brackets")) {
+            while (rs.next()) {
+                brackets.put(rs.getString(1), Bracket.fromCode(rs.getInt(2)));
+            }
+        }
+        return brackets;
+    }
+
+    public void recordBrackets(Map<String, Bracket> brackets) throws SQLException {
+        if (brackets.isEmpty()) return;
+        try (PreparedStatement pstmt = connection.prepareStatement("INSERT OR REPLACE INTO match_brackets (match_id, bracket) VALUES (?, ?)")) {
+            for (Map.Entry<String, Bracket> entry : brackets.entrySet()) {
+                pstmt.setString(1, entry.getKey());
+                pstmt.setInt(2, entry.getValue().code());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    public void replacePending(String platform, Map<String, Bracket> matches) throws SQLException {
+        clearPending(platform);
+        try (PreparedStatement pstmt = connection.prepareStatement("INSERT INTO pending_matches (platform, position, match_id) VALUES (?, ?, ?)")) {
+            int position = 0;
+            for (String matchId : matches.keySet()) {
+                pstmt.setString(1, platform);
+                pstmt.setInt(2, position++);
+                pstmt.setString(3, matchId);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        recordBrackets(matches);
+    }
+
+    public void clearPending(String platform) throws SQLException {
+        try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM pending_matches WHERE platform = ?")) {
+            pstmt.setString(1, platform);
+            pstmt.executeUpdate();
+        }
+    }
+}
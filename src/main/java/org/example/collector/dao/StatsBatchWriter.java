@@ -0,0 +1,121 @@
+package org.example.collector.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class StatsBatchWriter implements AutoCloseable {
+    private final Connection connection;
+    private final PreparedStatement championStmt;
+    private final PreparedStatement roleStmt;
+    private final PreparedStatement synergyStmt;
+    private final PreparedStatement counterStmt;
+    private final Map<ChampionKey, int[]> championDeltas = new HashMap<>();
+    private final Map<RoleKey, int[]> roleDeltas = new HashMap<>();
+    private final Map<PairKey, int[]> synergyDeltas = new HashMap<>();
+    private final Map<PairKey, int[]> counterDeltas = new HashMap<>();
+
+    StatsBatchWriter(Connection connection) throws SQLException {
+        this.connection = connection;
+        this.championStmt = connection.prepareStatement(StatsDao.CHAMPION_UPSERT_SQL);
+        this.roleStmt = connection.prepareStatement(StatsDao.ROLE_UPSERT_SQL);
+        this.synergyStmt = connection.prepareStatement(StatsDao.SYNERGY_UPSERT_SQL);
+        this.counterStmt = connection.prepareStatement(StatsDao.COUNTER_UPSERT_SQL);
+    }
+
+    public void addChampion(int patch, int bracket, int championId, int wins, int plays) {
+        int[] delta = championDeltas.computeIfAbsent(new ChampionKey(patch, bracket, championId), k -> new int[2]);
+        delta[0] += wins;
+        delta[1] += plays;
+    }
+
+    public void addRole(int patch, int bracket, int championId, String role, int plays) {
+        if (role == null || role.isBlank()) return;
+        roleDeltas.computeIfAbsent(new RoleKey(patch, bracket, championId, role), k -> new int[1])[0] += plays;
+    }
+
+    public void addSynergy(int patch, int bracket, int championId, int role, int allyId, int allyRole, int wins, int plays) {
+        PairKey key = championId <= allyId
+                ? new PairKey(patch, bracket, championId, role, allyId, allyRole)
+                : new PairKey(patch, bracket, allyId, allyRole, championId, role);
+        int[] delta = synergyDeltas.computeIfAbsent(key, k -> new int[2]);
+        delta[0] += wins;
+        delta[1] += plays;
+    }
+
+    public void addCounter(int patch, int bracket, int championId, int role, int enemyId, int enemyRole, int wins, int plays) {
+        PairKey key = new PairKey(patch, bracket, championId, role, enemyId, enemyRole);
+        int[] delta = counterDeltas.computeIfAbsent(key, k -> new int[2]);
+        delta[0] += wins;
+        delta[1] += plays;
+    }
+
+    public void flush() throws SQLException {
+        for (Map.Entry<ChampionKey, int[]> entry : championDeltas.entrySet()) {
+            championStmt.setInt(1, entry.getKey().patch());
+            championStmt.setInt(2, entry.getKey().bracket());
+            championStmt.setInt(3, entry.getKey().championId());
+            championStmt.setInt(4, entry.getValue()[0]);
+            championStmt.setInt(5, entry.getValue()[1]);
+            championStmt.addBatch();
+        }
+        for (Map.Entry<RoleKey, int[]> entry : roleDeltas.entrySet()) {
+            roleStmt.setInt(1, entry.getKey().patch());
+            roleStmt.setInt(2, entry.getKey().bracket());
+            roleStmt.setInt(3, entry.getKey().championId());
+            roleStmt.setString(4, entry.getKey().role());
+            roleStmt.setInt(5, entry.getValue()[0]);
+            roleStmt.addBatch();
+        }
+        addPairBatch(synergyStmt, synergyDeltas);
+        addPairBatch(counterStmt, counterDeltas);
+
+        championStmt.executeBatch();
+        roleStmt.executeBatch();
+        synergyStmt.executeBatch();
+        counterStmt.executeBatch();
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+
+        championDeltas.clear();
+        roleDeltas.clear();
+        synergyDeltas.clear();
+        counterDeltas.clear();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            flush();
+        } finally {
+            championStmt.close();
+            roleStmt.close();
+            synergyStmt.close();
+            counterStmt.close();
+        }
+    }
+
+    private void addPairBatch(PreparedStatement stmt, Map<PairKey, int[]> deltas) throws SQLException {
+        for (Map.Entry<PairKey, int[]> entry : deltas.entrySet()) {
+            PairKey key = entry.getKey();
+            stmt.setInt(1, key.patch());
+            stmt.setInt(2, key.bracket());
+            stmt.setInt(3, key.first());
+            stmt.setInt(4, key.firstRole());
+            stmt.setInt(5, key.second());
+            stmt.setInt(6, key.secondRole());
+            stmt.setInt(7, entry.getValue()[0]);
+            stmt.setInt(8, entry.getValue()[1]);
+            stmt.addBatch();
+        }
+    }
+
+    private record ChampionKey(int patch, int bracket, int championId) { }
+
+    private record RoleKey(int patch, int bracket, int championId, String role) { }
+
+    private record PairKey(int patch, int bracket, int first, int firstRole, int second, int secondRole) { }
+}
@@ -1,66 +1,123 @@
 package org.example.collector.dao;
 
+import org.example.model.BracketGroup;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
 public class StatsDao {
+    static final String CHAMPION_UPSERT_SQL =
+            "INSERT INTO champion_stats (patch, bracket, champion_id, wins, plays) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT(patch, bracket, champion_id) DO UPDATE SET " +
+            "wins = wins + excluded.wins, " +
+            "plays = plays + excluded.plays;";
+    static final String ROLE_UPSERT_SQL =
+            "INSERT INTO role_stats (patch, bracket, champion_id, role, plays) VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT(patch, bracket, champion_id, role) DO UPDATE SET " +
+            "plays = plays + excluded.plays;";
+    static final String SYNERGY_UPSERT_SQL =
+            "INSERT INTO synergy_stats (patch, bracket, champion_id, champion_role, ally_id, ally_role, wins, plays) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT(patch, bracket, champion_id, champion_role, ally_id, ally_role) DO UPDATE SET " +
+            "wins = wins + excluded.wins, " +
+            "plays = plays + excluded.plays;";
+    static final String COUNTER_UPSERT_SQL =
+            "INSERT INTO counter_stats (patch, bracket, champion_id, champion_role, enemy_id, enemy_role, wins, plays) VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT(patch, bracket, champion_id, champion_role, enemy_id, enemy_role) DO UPDATE SET " +
+            "wins = wins + excluded.wins, " +
+            "plays = plays + excluded.plays;";
+    private static final String[] STATS_TABLES = {"champion_stats", "role_stats", "synergy_stats", "counter_stats"};
+    private static final String[] ROLLUP_SQL = {
+            "INSERT INTO champion_rollup (rollup, champion_id, wins, plays) " +
+            "SELECT ?, champion_id, SUM(wins), SUM(plays) FROM champion_stats " +
+            "WHERE patch >= ? AND bracket BETWEEN ? AND ? GROUP BY champion_id",
+            "INSERT INTO role_rollup (rollup, champion_id, role, plays) " +
+            "SELECT ?, champion_id, role, SUM(plays) FROM role_stats " +
+            "WHERE patch >= ? AND bracket BETWEEN ? AND ? GROUP BY champion_id, role",
+            "INSERT INTO synergy_rollup (rollup, champion_id, champion_role, ally_id, ally_role, wins, plays) " +
+            "SELECT ?, champion_id, champion_role, ally_id, ally_role, SUM(wins), SUM(plays) FROM synergy_stats " +
+            "WHERE patch >= ? AND bracket BETWEEN ? AND ? GROUP BY champion_id, champion_role, ally_id, ally_role",
+            "INSERT INTO counter_rollup (rollup, champion_id, champion_role, enemy_id, enemy_role, wins, plays) " +
+            "SELECT ?, champion_id, champion_role, enemy_id, enemy_role, SUM(wins), SUM(plays) FROM counter_stats " +
+            "WHERE patch >= ? AND bracket BETWEEN ? AND ? GROUP BY champion_id, champion_role, enemy_id, enemy_role"
+    };
+    private static final String[] ROLLUP_TABLES = {"champion_rollup", "role_rollup", "synergy_rollup", "counter_rollup"};
+
     private final Connection connection;
 
     public StatsDao(Connection connection) {
         this.connection = connection;
     }
 
-    public void upsertChampionStats(int championId, boolean win) throws SQLException {
-        String sql = "INSERT INTO champion_stats (champion_id, wins, plays) VALUES (?, ?, 1) " +
-                     "ON CONFLICT(champion_id) DO UPDATE SET " +
-                     "wins = wins + excluded.wins, " +
-                     "plays = plays + 1;";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, championId);
-            pstmt.setInt(2, win ? 1 : 0);
-            pstmt.executeUpdate();
+    public StatsBatchWriter batchWriter() throws SQLException {
+        return new StatsBatchWriter(connection);
+    }
+
+    public List<Integer> patches() throws SQLException {
+        List<Integer> patches = new ArrayList<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT DISTINCT patch FROM champion_stats ORDER BY patch DESC")) {
+            while (rs.next()) {
+                patches.add(rs.getInt(1));
+            }
         }
+        return patches;
     }
 
-    public void upsertRoleStats(int championId, String role) throws SQLException {
-        if (role == null || role.isBlank()) return;
-        String sql = "INSERT INTO role_stats (champion_id, role, plays) VALUES (?, ?, 1) " +
-                     "ON CONFLICT(champion_id, role) DO UPDATE SET " +
-                     "plays = plays + 1;";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, championId);
-            pstmt.setString(2, role);
-            pstmt.executeUpdate();
+    public int deletePatchesBefore(int patch) throws SQLException {
+        int deleted = 0;
+        for (String table : STATS_TABLES) {
+            try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM " + table + " WHERE patch < ?")) {
+                pstmt.setInt(1, patch);
+                deleted += pstmt.executeUpdate();
+            }
         }
+        return deleted;
     }
 
-    public void upsertSynergyStats(int championId, int allyId, boolean win) throws SQLException {
-        int id1 = Math.min(championId, allyId);
-        int id2 = Math.max(championId, allyId);
+    public int retainRecentPatches(int count) throws SQLException {
+        List<Integer> patches = patches();
+        if (count <= 0 || patches.size() <= count) {
+            return 0;
+        }
+        return deletePatchesBefore(patches.get(count - 1));
+    }
 
-        String sql = "INSERT INTO synergy_stats (champion_id, ally_id, wins, plays) VALUES (?, ?, ?, 1) " +
-                     "ON CONFLICT(champion_id, ally_id) DO UPDATE SET " +
-                     "wins = wins + excluded.wins, " +
-                     "plays = plays + 1;";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, id1);
-            pstmt.setInt(2, id2);
-            pstmt.setInt(3, win ? 1 : 0);
-            pstmt.executeUpdate();
+    public int firstPatchOfRecent(int count) throws SQLException {
+        List<Integer> patches = patches();
+        if (count <= 0 || patches.isEmpty()) {
+            return Integer.MIN_VALUE;
         }
+        return patches.get(Math.min(count, patches.size()) - 1);
     }
 
-    public void upsertCounterStats(int championId, int enemyId, boolean win) throws SQLException {
-        String sql = "INSERT INTO counter_stats (champion_id, enemy_id, wins, plays) VALUES (?, ?, ?, 1) " +
-                     "ON CONFLICT(champion_id, enemy_id) DO UPDATE SET " +
-                     "wins = wins + excluded.wins, " +
-                     "plays = plays + 1;";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, championId);
-            pstmt.setInt(2, enemyId);
-            pstmt.setInt(3, win ? 1 : 0);
+    public void rebuildRollup(BracketGroup group, int patchWindow) throws SQLException {
+        for (String table : ROLLUP_TABLES) {
+            try (PreparedStatement pstmt = connection.prepareStatement("DELETE FROM " + table + " WHERE rollup = ?")) {
+                pstmt.setString(1, group.name());
+                pstmt.executeUpdate();
+            }
+        }
+        int fromPatch = firstPatchOfRecent(patchWindow);
+        for (String sql : ROLLUP_SQL) {
+            try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+                pstmt.setString(1, group.name());
+                pstmt.setInt(2, fromPatch);
+                pstmt.setInt(3, group.minCode());
+                pstmt.setInt(4, group.maxCode());
+                pstmt.executeUpdate();
+            }
+        }
+        try (PreparedStatement pstmt = connection.prepareStatement(
+                "INSERT OR REPLACE INTO rollup_info (rollup, patch_window, built_at) VALUES (?, ?, ?)")) {
+            pstmt.setString(1, group.name());
+            pstmt.setInt(2, Math.max(0, patchWindow));
+            pstmt.setLong(3, System.currentTimeMillis());
             pstmt.executeUpdate();
         }
     }
-}
\ No newline at end of file
+}
@@ -83,10 +83,19 @@ public class ChampionsController {
     public void initialize() {
         ThemeManager.addThemeChangeListener(themeListener);
         statsService = StatsServiceFactory.create();
+        statsService.addSnapshotListener(() -> Platform.runLater(this::reloadChampions));
+        reloadChampions();
+    }
+
+    private void reloadChampions() {
+        String selectedId = currentChampion == null ? null : currentChampion.id();
         loadChampionInfos();
         populateGrid();
         if (!championInfos.isEmpty()) {
-            showChampionDetails(championInfos.get(0));
+            showChampionDetails(championInfos.stream()
+                    .filter(info -> info.id().equals(selectedId))
+                    .findFirst()
+                    .orElse(championInfos.get(0)));
         } else {
             championNameLabel.setText("No champions found");
         }
@@ -3,6 +3,7 @@ package org.example.controller;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
@@ -10,6 +11,7 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Cursor;
 import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 import javafx.scene.control.OverrunStyle;
@@ -33,7 +35,10 @@ import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 import javafx.util.Duration;
 import org.example.ThemeManager;
+import org.example.model.BracketGroup;
 import org.example.model.ChampionSummary;
+import org.example.model.DraftOutlook;
+import org.example.model.DraftTurn;
 import org.example.model.PairWinRate;
 import org.example.model.RecommendationContext;
 import org.example.model.Role;
@@ -59,13 +64,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class GameController {
     private static final int SLOT_COUNT = 5;
-    private static final int RECOMMENDATION_LIMIT = Integer.MAX_VALUE;
+    private static final int RECOMMENDATION_PAGE_SIZE = 30;
+    private static final int LOOKAHEAD_CANDIDATES = 12;
     private static final Role[] ROLE_ORDER = {Role.TOP, Role.JUNGLE, Role.MID, Role.BOTTOM, Role.SUPPORT};
     private static final double STRONG_PAIR_THRESHOLD = 0.05;
     private static final int MAX_PAIR_LINES = 2;
@@ -88,6 +95,7 @@ public class GameController {
     @FXML private HBox roleFilterBar;
     @FXML private VBox firstPickPrompt;
     @FXML private Button finishBansButton;
+    @FXML private ChoiceBox<BracketGroup> bracketChoice;
 
     @FXML private Rectangle allyPick1OpBar, allyPick1SynBar, allyPick1CoBar;
     @FXML private Rectangle allyPick2OpBar, allyPick2SynBar, allyPick2CoBar;
@@ -124,6 +132,10 @@ public class GameController {
     private Map<String, ChampionStats> allChampionStatsMap;
     private ObservableList<ChampionSummary> tableData;
     private FilteredList<ChampionSummary> filteredTableData;
+    private RecommendationContext recommendationContext;
+    private boolean recommendationsExhausted = true;
+    private boolean recommendationPageQueued;
+    private DraftOutlook draftOutlook = DraftOutlook.EMPTY;
     private RoleFilter activeRoleFilter = RoleFilter.FLEX;
     private Slot activeSlot;
     private final Consumer<ThemeManager.Theme> themeListener = theme -> Platform.runLater(this::refreshRoleIcons);
@@ -187,11 +199,13 @@ public class GameController {
     public void initialize() {
         ThemeManager.addThemeChangeListener(themeListener);
         statsService = StatsServiceFactory.create();
+        statsService.addSnapshotListener(() -> Platform.runLater(this::onSnapshotChanged));
         allChampionStatsMap = statsService.allChampionStats();
         configureTable();
         configureSlots();
         configureFirstPickPrompt();
         configureChampionFilter();
+        configureBracketChoice();
         resetBoardToInitial();
         refreshRecommendations();
         recommendedTable.setOnMouseClicked(event -> {
@@ -244,6 +258,9 @@ public class GameController {
                 Tooltip tooltip = buildChampionTooltip(row);
                 setTooltip(tooltip);
                 applyTooltip(box, tooltip);
+                if (getIndex() >= getTableView().getItems().size() - RECOMMENDATION_PAGE_SIZE / 3) {
+                    queueRecommendationPage();
+                }
             }
         });
         opCol.setCellFactory(col -> tierBadgeCell(ChampionSummary::opTier, false, null));
@@ -251,11 +268,21 @@ public class GameController {
         coCol.setCellFactory(col -> tierBadgeCell(ChampionSummary::coTier, false, "co-cell"));
         scoreCol.setCellFactory(col -> new ScoreCell());
         scoreCol.setSortType(TableColumn.SortType.DESCENDING);
+        // Pages arrive in score order, so any other ordering needs the full ranking loaded to be correct.
+        recommendedTable.getSortOrder().addListener((ListChangeListener<TableColumn<ChampionSummary, ?>>) change -> {
+            if (!sortedByScore()) Platform.runLater(this::loadRemainingRecommendations);
+        });
+        scoreCol.sortTypeProperty().addListener((obs, old, type) -> {
+            if (!sortedByScore()) Platform.runLater(this::loadRemainingRecommendations);
+        });
     }
 
     private void applyChampionFilter(String text) {
         if (filteredTableData == null) return;
         String query = text == null ? "" : text.trim().toLowerCase();
+        if (!query.isEmpty() || activeRoleFilter.mappedRole() != null) {
+            loadRemainingRecommendations();
+        }
         filteredTableData.setPredicate(summary -> {
             if (summary == null) return false;
             boolean matchesSearch = query.isEmpty() || summary.name().toLowerCase().contains(query);
@@ -318,6 +345,10 @@ public class GameController {
         }
         lines.addAll(describeSynergyInsights(summary.synergyPartners()));
         lines.addAll(describeCounterInsights(summary.counterOpponents()));
+        Double outlook = draftOutlook.values().get(summary.id());
+        if (outlook != null && draftOutlook.depth() > 0) {
+            lines.add(String.format("AHEAD: %s expected draft edge (%d picks ahead)", formatDelta(outlook), draftOutlook.depth()));
+        }
         if (lines.isEmpty()) {
             return null;
         }
@@ -478,6 +509,22 @@ public class GameController {
         configureRoleFilterBar();
     }
 
+    private void configureBracketChoice() {
+        if (bracketChoice == null) return;
+        bracketChoice.getItems().setAll(BracketGroup.values());
+        bracketChoice.setValue(statsService.bracketGroup());
+        bracketChoice.valueProperty().addListener((obs, old, group) -> {
+            if (group == null || group == statsService.bracketGroup()) return;
+            statsService.selectBracketGroup(group);
+            onSnapshotChanged();
+        });
+    }
+
+    private void onSnapshotChanged() {
+        allChampionStatsMap = statsService.allChampionStats();
+        refreshRecommendations();
+    }
+
     private void showFirstPickPrompt(boolean show) {
         if (firstPickPrompt == null) {
             return;
@@ -988,13 +1035,81 @@ public class GameController {
                 bans,
                 targetRole,
                 allyPerspective,
-                RECOMMENDATION_LIMIT
+                RECOMMENDATION_PAGE_SIZE
         );
 
-        List<ChampionSummary> summaries = statsService.fetchRecommended(context);
+        List<ChampionSummary> summaries = statsService.fetchRecommended(context, 0, RECOMMENDATION_PAGE_SIZE);
+        recommendationContext = context;
+        recommendationsExhausted = summaries.size() < RECOMMENDATION_PAGE_SIZE;
         tableData.setAll(summaries);
+        // Search and role filters apply to loaded rows only, so they need the full ranking.
+        String query = championFilterField == null ? null : championFilterField.getText();
+        if ((query != null && !query.isBlank()) || activeRoleFilter.mappedRole() != null) {
+            loadRemainingRecommendations();
+        }
         recommendedTable.getSortOrder().setAll(scoreCol);
         recommendedTable.sort();
+        refreshDraftOutlook(context, summaries);
+    }
+
+    private void refreshDraftOutlook(RecommendationContext context, List<ChampionSummary> summaries) {
+        draftOutlook = DraftOutlook.EMPTY;
+        List<DraftTurn> turns = remainingTurns();
+        if (turns == null || summaries.isEmpty()) return;
+        List<String> candidates = summaries.stream()
+                .limit(LOOKAHEAD_CANDIDATES)
+                .map(ChampionSummary::id)
+                .collect(Collectors.toList());
+        CompletableFuture.supplyAsync(() -> statsService.fetchDraftOutlook(context, turns, candidates))
+                .thenAccept(outlook -> Platform.runLater(() -> {
+                    if (context == recommendationContext) {
+                        draftOutlook = outlook;
+                        recommendedTable.refresh();
+                    }
+                }));
+    }
+
+    private List<DraftTurn> remainingTurns() {
+        if (activeSlot == null || (activeSlot.type != SlotType.ALLY_PICK && activeSlot.type != SlotType.ENEMY_PICK)) {
+            return null;
+        }
+        List<Slot> order = pickOrder.isEmpty() && firstPickSide != null ? buildPickOrder(firstPickSide) : pickOrder;
+        List<DraftTurn> turns = new ArrayList<>();
+        for (Slot slot : order) {
+            if (slot == activeSlot || valueForSlot(slot) != null) continue;
+            turns.add(new DraftTurn(slot.type.isAlly(), rolesForSlot(slot).get(slot.index)));
+        }
+        return turns;
+    }
+
+    private void queueRecommendationPage() {
+        if (recommendationsExhausted || recommendationPageQueued) return;
+        recommendationPageQueued = true;
+        Platform.runLater(() -> {
+            recommendationPageQueued = false;
+            if (loadRecommendations(RECOMMENDATION_PAGE_SIZE)) {
+                recommendedTable.sort();
+            }
+        });
+    }
+
+    private boolean sortedByScore() {
+        List<TableColumn<ChampionSummary, ?>> order = recommendedTable.getSortOrder();
+        return order.isEmpty() || (order.get(0) == scoreCol && scoreCol.getSortType() == TableColumn.SortType.DESCENDING);
+    }
+
+    private void loadRemainingRecommendations() {
+        if (loadRecommendations(Integer.MAX_VALUE)) {
+            recommendedTable.sort();
+        }
+    }
+
+    private boolean loadRecommendations(int count) {
+        if (recommendationsExhausted || recommendationContext == null) return false;
+        List<ChampionSummary> page = statsService.fetchRecommended(recommendationContext, tableData.size(), count);
+        recommendationsExhausted = page.size() < count;
+        tableData.addAll(page);
+        return !page.isEmpty();
     }
 
     @FXML
@@ -17,6 +17,7 @@ import javafx.stage.Stage;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.ThemeManager;
+import org.example.service.StatsServiceFactory;
 import org.example.service.lcu.ChampSelectSnapshot;
 import org.example.service.lcu.LeagueClientChampSelectWatcher;
 import org.example.util.AppPaths;
@@ -128,6 +129,7 @@ public class MainController {
 
     public void stop() {
         clientWatcher.stop();
+        StatsServiceFactory.shutdown();
     }
 
     private void startLcuWatcher() {
@@ -0,0 +1,40 @@
+package org.example.model;
+
+public enum Bracket {
+    UNKNOWN(0),
+    IRON(1),
+    BRONZE(2),
+    SILVER(3),
+    GOLD(4),
+    PLATINUM(5),
+    EMERALD(6),
+    DIAMOND(7),
+    MASTER(8),
+    GRANDMASTER(9),
+    CHALLENGER(10);
+
+    private static final Bracket[] BY_CODE = values();
+
+    private final int code;
+
+    Bracket(int code) {
+        this.code = code;
+    }
+
+    public int code() {
+        return code;
+    }
+
+    public static Bracket fromCode(int code) {
+        return code >= 0 && code < BY_CODE.length ? BY_CODE[code] : UNKNOWN;
+    }
+
+    public static Bracket fromTier(String tier) {
+        if (tier == null || tier.isBlank()) return UNKNOWN;
+        try {
+            return valueOf(tier.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN;
+        }
+    }
+}
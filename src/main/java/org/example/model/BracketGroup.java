@@ -0,0 +1,44 @@
+package org.example.model;
+
+public enum BracketGroup {
+    ALL("All ranks", Bracket.UNKNOWN),
+    EMERALD_PLUS("Emerald+", Bracket.EMERALD),
+    DIAMOND_PLUS("Diamond+", Bracket.DIAMOND),
+    MASTER_PLUS("Master+", Bracket.MASTER);
+
+    private final String label;
+    private final Bracket minimum;
+
+    BracketGroup(String label, Bracket minimum) {
+        this.label = label;
+        this.minimum = minimum;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public int minCode() {
+        return minimum.code();
+    }
+
+    public int maxCode() {
+        return Bracket.CHALLENGER.code();
+    }
+
+    public static BracketGroup parse(String value) {
+        if (value == null || value.isBlank()) return ALL;
+        String normalized = value.trim().toUpperCase().replace("+", "_PLUS").replace("-", "_");
+        for (BracketGroup group : values()) {
+            if (group.name().equals(normalized)) {
+                return group;
+            }
+        }
+        return ALL;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.model;
+
+import java.util.Map;
+
+public record DraftOutlook(Map<String, Double> values, int depth) {
+    public static final DraftOutlook EMPTY = new DraftOutlook(Map.of(), 0);
+
+    public DraftOutlook {
+        values = values == null ? Map.of() : Map.copyOf(values);
+    }
+}
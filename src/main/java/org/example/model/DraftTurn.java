@@ -0,0 +1,3 @@
+package org.example.model;
+
+public record DraftTurn(boolean ally, Role role) { }
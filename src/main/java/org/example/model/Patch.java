@@ -0,0 +1,26 @@
+package org.example.model;
+
+public final class Patch {
+    public static final int UNKNOWN = 0;
+
+    private Patch() {
+    }
+
+    public static int parse(String gameVersion) {
+        if (gameVersion == null || gameVersion.isBlank()) return UNKNOWN;
+        String[] parts = gameVersion.trim().split("\\.");
+        if (parts.length < 2) return UNKNOWN;
+        try {
+            int major = Integer.parseInt(parts[0]);
+            int minor = Integer.parseInt(parts[1]);
+            if (major < 0 || minor < 0 || minor >= 100) return UNKNOWN;
+            return major * 100 + minor;
+        } catch (NumberFormatException e) {
+            return UNKNOWN;
+        }
+    }
+
+    public static String format(int patch) {
+        return patch == UNKNOWN ? "unknown" : (patch / 100) + "." + (patch % 100);
+    }
+}
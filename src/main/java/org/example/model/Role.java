@@ -5,12 +5,14 @@ import java.util.List;
 import java.util.Set;
 
 public enum Role {
-    TOP("Top", "TopIcon.png"),
-    JUNGLE("Jungle", "JungleIcon.png"),
-    MID("Mid", "MiddleIcon.png"),
-    BOTTOM("Bot", "BottomIcon.png"),
-    SUPPORT("Support", "SupportIcon.png"),
-    UNKNOWN("Flex", "SupportIcon.png");
+    TOP(1, "Top", "TopIcon.png"),
+    JUNGLE(2, "Jungle", "JungleIcon.png"),
+    MID(3, "Mid", "MiddleIcon.png"),
+    BOTTOM(4, "Bot", "BottomIcon.png"),
+    SUPPORT(5, "Support", "SupportIcon.png"),
+    UNKNOWN(0, "Flex", "SupportIcon.png");
+
+    private static final Role[] BY_CODE = {UNKNOWN, TOP, JUNGLE, MID, BOTTOM, SUPPORT};
 
     static {
         TOP.setPartners(EnumSet.of(JUNGLE), EnumSet.of(TOP));
@@ -21,21 +23,43 @@ public enum Role {
         UNKNOWN.setPartners(EnumSet.allOf(Role.class), EnumSet.allOf(Role.class));
     }
 
+    private final int code;
     private final String label;
     private final String iconFile;
     private Set<Role> synergyPartners;
     private Set<Role> counterPartners;
 
-    Role(String label, String iconFile) {
+    Role(int code, String label, String iconFile) {
+        this.code = code;
         this.label = label;
         this.iconFile = iconFile;
     }
 
+    public static Role fromCode(int code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : UNKNOWN;
+    }
+
+    public static Role fromLane(String lane) {
+        if (lane == null) return UNKNOWN;
+        return switch (lane.toUpperCase()) {
+            case "TOP" -> TOP;
+            case "JUNGLE" -> JUNGLE;
+            case "MIDDLE", "MID" -> MID;
+            case "ADC", "BOTTOM", "BOT" -> BOTTOM;
+            case "SUPPORT", "UTILITY" -> SUPPORT;
+            default -> UNKNOWN;
+        };
+    }
+
     private void setPartners(Set<Role> synergy, Set<Role> counter) {
         this.synergyPartners = EnumSet.copyOf(synergy);
         this.counterPartners = EnumSet.copyOf(counter);
     }
 
+    public int code() {
+        return code;
+    }
+
     public String label() {
         return label;
     }
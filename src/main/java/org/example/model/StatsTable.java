@@ -0,0 +1,44 @@
+package org.example.model;
+
+import java.util.List;
+
+public interface StatsTable {
+    int championCount();
+
+    String name(int champion);
+
+    int indexOf(String name);
+
+    int wins(int champion);
+
+    int games(int champion);
+
+    default double winRate(int champion) {
+        int games = games(champion);
+        return games == 0 ? 0.0 : (double) wins(champion) / games;
+    }
+
+    int roleGames(int champion, Role role);
+
+    List<Role> allRoles(int champion);
+
+    default Role primaryRole(int champion) {
+        return allRoles(champion).get(0);
+    }
+
+    int synergyWins(int champion, int ally);
+
+    int synergyGames(int champion, int ally);
+
+    int counterWins(int champion, int enemy);
+
+    int counterGames(int champion, int enemy);
+
+    int laneSynergy(int champion, Role role, int ally, Role allyRole);
+
+    int laneCounter(int champion, Role role, int enemy, Role enemyRole);
+
+    int laneWins(int entry);
+
+    int laneGames(int entry);
+}
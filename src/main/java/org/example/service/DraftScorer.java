@@ -0,0 +1,187 @@
+package org.example.service;
+
+import org.example.model.PairWinRate;
+import org.example.model.Role;
+import org.example.model.StatsTable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public final class DraftScorer {
+    public static final int MIN_PAIR_GAMES = 5;
+    private static final double SCALE = 0x1p32;
+
+    private StatsTable table;
+    private Role targetRole;
+    private Role[] roles = new Role[0];
+    private final Group synergy = new Group(true);
+    private final Group counter = new Group(false);
+
+    public void update(StatsTable table, Role targetRole, List<Pick> synergyPicks, List<Pick> counterPicks) {
+        if (table != this.table || targetRole != this.targetRole) {
+            this.table = table;
+            this.targetRole = targetRole;
+            roles = new Role[table.championCount()];
+            for (int champion = 0; champion < roles.length; champion++) {
+                roles[champion] = laneRole(table, champion, targetRole);
+            }
+            synergy.reset(roles.length);
+            counter.reset(roles.length);
+        }
+        synergy.apply(synergyPicks);
+        counter.apply(counterPicks);
+    }
+
+    public Role role(int champion) {
+        return roles[champion];
+    }
+
+    public double synergyWinRate(int champion) {
+        return synergy.winRate(champion);
+    }
+
+    public double counterWinRate(int champion) {
+        return counter.winRate(champion);
+    }
+
+    public Metrics synergy(int champion, List<Pick> picks) {
+        return synergy.metrics(champion, picks);
+    }
+
+    public Metrics counter(int champion, List<Pick> picks) {
+        return counter.metrics(champion, picks);
+    }
+
+    public static Role laneRole(StatsTable table, int champion, Role targetRole) {
+        return targetRole != null && targetRole != Role.UNKNOWN ? targetRole : table.primaryRole(champion);
+    }
+
+    public static Metrics compute(StatsTable table, int champion, Role role, List<Pick> picks, boolean synergy) {
+        if (picks.isEmpty()) {
+            return Metrics.EMPTY;
+        }
+        long total = 0;
+        int count = 0;
+        List<PairWinRate> entries = new ArrayList<>();
+        for (Pick pick : picks) {
+            double wr = pairWinRate(table, champion, role, pick, synergy);
+            if (!Double.isNaN(wr)) {
+                total += fixed(wr);
+                count++;
+                entries.add(new PairWinRate(pick.displayName(), wr));
+            }
+        }
+        return count == 0 ? Metrics.EMPTY : new Metrics(average(total, count), List.copyOf(entries));
+    }
+
+    static double pairWinRate(StatsTable table, int champion, Role role, Pick pick, boolean synergy) {
+        if (!synergy && !role.contests(pick.role())) {
+            return Double.NaN;
+        }
+        boolean hasLane = role != Role.UNKNOWN && pick.role() != Role.UNKNOWN;
+        int lane = !hasLane ? -1 : synergy
+                ? table.laneSynergy(champion, role, pick.index(), pick.role())
+                : table.laneCounter(champion, role, pick.index(), pick.role());
+        int wins;
+        int games;
+        if (lane >= 0 && table.laneGames(lane) >= MIN_PAIR_GAMES) {
+            wins = table.laneWins(lane);
+            games = table.laneGames(lane);
+        } else if (synergy) {
+            wins = table.synergyWins(champion, pick.index());
+            games = table.synergyGames(champion, pick.index());
+        } else {
+            wins = table.counterWins(champion, pick.index());
+            games = table.counterGames(champion, pick.index());
+        }
+        return games >= MIN_PAIR_GAMES ? (double) wins / games : Double.NaN;
+    }
+
+    // Win rates are summed in fixed point so removing a pick is exact and order independent.
+    private static long fixed(double winRate) {
+        return Math.round(winRate * SCALE);
+    }
+
+    private static double average(long total, int count) {
+        return total / SCALE / count;
+    }
+
+    private final class Group {
+        private final boolean synergy;
+        private final Map<Pick, double[]> columns = new HashMap<>();
+        private long[] totals = new long[0];
+        private int[] counts = new int[0];
+
+        private Group(boolean synergy) {
+            this.synergy = synergy;
+        }
+
+        private void reset(int champions) {
+            columns.clear();
+            totals = new long[champions];
+            counts = new int[champions];
+        }
+
+        private void apply(List<Pick> picks) {
+            Set<Pick> wanted = new HashSet<>(picks);
+            Iterator<Map.Entry<Pick, double[]>> it = columns.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Pick, double[]> entry = it.next();
+                if (!wanted.contains(entry.getKey())) {
+                    add(entry.getValue(), -1);
+                    it.remove();
+                }
+            }
+            for (Pick pick : picks) {
+                if (!columns.containsKey(pick)) {
+                    double[] column = new double[roles.length];
+                    for (int champion = 0; champion < column.length; champion++) {
+                        column[champion] = pairWinRate(table, champion, roles[champion], pick, synergy);
+                    }
+                    add(column, 1);
+                    columns.put(pick, column);
+                }
+            }
+        }
+
+        private void add(double[] column, int sign) {
+            for (int champion = 0; champion < column.length; champion++) {
+                double wr = column[champion];
+                if (!Double.isNaN(wr)) {
+                    totals[champion] += sign * fixed(wr);
+                    counts[champion] += sign;
+                }
+            }
+        }
+
+        private double winRate(int champion) {
+            return counts[champion] == 0 ? Double.NaN : average(totals[champion], counts[champion]);
+        }
+
+        private Metrics metrics(int champion, List<Pick> picks) {
+            if (counts[champion] == 0) {
+                return Metrics.EMPTY;
+            }
+            List<PairWinRate> entries = new ArrayList<>(counts[champion]);
+            for (Pick pick : picks) {
+                double[] column = columns.get(pick);
+                if (column != null && !Double.isNaN(column[champion])) {
+                    entries.add(new PairWinRate(pick.displayName(), column[champion]));
+                }
+            }
+            return new Metrics(average(totals[champion], counts[champion]), List.copyOf(entries));
+        }
+    }
+
+    public record Pick(int index, Role role, String displayName) {
+    }
+
+    public record Metrics(double winRate, List<PairWinRate> entries) {
+        public static final Metrics EMPTY = new Metrics(Double.NaN, List.of());
+    }
+}
@@ -0,0 +1,231 @@
+package org.example.service;
+
+import org.example.model.Role;
+import org.example.model.StatsTable;
+import org.example.service.DraftScorer.Pick;
+import org.example.util.TopK;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public final class DraftSearch {
+    private static final double OP_WEIGHT = 0.5;
+    private static final double SYN_WEIGHT = 0.25;
+    private static final double COUNTER_WEIGHT = 0.25;
+    private static final int BEAM_WIDTH = 5;
+    private static final ForkJoinPool POOL = new ForkJoinPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors() - 1),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("draft-search-" + thread.getPoolIndex());
+                return thread;
+            },
+            null,
+            false);
+
+    private final StatsTable table;
+    private final List<Turn> turns;
+    private final int minGames;
+    private final long deadline;
+    private final AtomicBoolean expired = new AtomicBoolean();
+
+    private DraftSearch(StatsTable table, List<Turn> turns, int minGames, long deadline) {
+        this.table = table;
+        this.turns = turns;
+        this.minGames = minGames;
+        this.deadline = deadline;
+    }
+
+    // Scores each candidate for our current pick by the expected value of the final composition: our turns take the
+    // best of the beam, enemy turns average the beam weighted by how often each champion is played in that role.
+    // Depth grows until the remaining turns are covered or the budget runs out; the deepest completed pass wins.
+    public static Result search(StatsTable table, List<Pick> ours, List<Pick> theirs, boolean[] taken, Role role,
+                                List<Turn> turns, int[] candidates, int minGames, long budgetNanos) {
+        DraftSearch search = new DraftSearch(table, List.copyOf(turns), minGames, System.nanoTime() + budgetNanos);
+        Board root = new Board(ours.toArray(Pick[]::new), theirs.toArray(Pick[]::new), taken.clone());
+        double[] best = null;
+        int depth = 0;
+        for (int limit = 0; limit <= turns.size(); limit++) {
+            double[] values = POOL.invoke(search.new Candidates(root, role, candidates, limit));
+            if (search.expired.get()) {
+                break;
+            }
+            best = values;
+            depth = limit;
+        }
+        return best == null ? new Result(new double[0], -1) : new Result(best, depth);
+    }
+
+    private double value(Board board, int turn, int depth) {
+        if (expired.get() || System.nanoTime() > deadline) {
+            expired.set(true);
+            return Double.NaN;
+        }
+        if (depth == 0 || turn >= turns.size()) {
+            return evaluate(board);
+        }
+        Turn next = turns.get(turn);
+        int[] beam = beam(board, next);
+        if (beam.length == 0) {
+            return value(board, turn + 1, depth - 1);
+        }
+        double[] values = new double[beam.length];
+        if (depth > 1 && beam.length > 1) {
+            List<Branch> branches = new ArrayList<>(beam.length);
+            for (int champion : beam) {
+                branches.add(new Branch(board.with(pick(champion, next.role()), next.ours()), turn + 1, depth - 1));
+            }
+            RecursiveTask.invokeAll(branches);
+            for (int i = 0; i < values.length; i++) {
+                values[i] = branches.get(i).join();
+            }
+        } else {
+            for (int i = 0; i < beam.length; i++) {
+                values[i] = value(board.with(pick(beam[i], next.role()), next.ours()), turn + 1, depth - 1);
+            }
+        }
+        if (next.ours()) {
+            double best = Double.NEGATIVE_INFINITY;
+            for (double value : values) {
+                best = Math.max(best, value);
+            }
+            return best;
+        }
+        double total = 0.0;
+        double weights = 0.0;
+        for (int i = 0; i < beam.length; i++) {
+            double weight = likelihood(beam[i], next.role());
+            total += weight * values[i];
+            weights += weight;
+        }
+        return weights == 0.0 ? evaluate(board) : total / weights;
+    }
+
+    private int[] beam(Board board, Turn turn) {
+        Pick[] team = turn.ours() ? board.ours() : board.theirs();
+        Pick[] opponents = turn.ours() ? board.theirs() : board.ours();
+        TopK top = new TopK(BEAM_WIDTH);
+        for (int champion = 0; champion < table.championCount(); champion++) {
+            if (board.taken()[champion] || table.games(champion) < minGames) continue;
+            if (turn.role() != Role.UNKNOWN && !table.allRoles(champion).contains(turn.role())) continue;
+            top.offer(champion, member(pick(champion, turn.role()), team, opponents));
+        }
+        return top.drain();
+    }
+
+    private double likelihood(int champion, Role role) {
+        return role == Role.UNKNOWN ? table.games(champion) : table.roleGames(champion, role);
+    }
+
+    // Our side's mean member value minus theirs, in win-rate units.
+    private double evaluate(Board board) {
+        return team(board.ours(), board.theirs()) - team(board.theirs(), board.ours());
+    }
+
+    private double team(Pick[] team, Pick[] opponents) {
+        if (team.length == 0) {
+            return 0.5;
+        }
+        double total = 0.0;
+        for (Pick pick : team) {
+            total += member(pick, team, opponents);
+        }
+        return total / team.length;
+    }
+
+    private double member(Pick pick, Pick[] team, Pick[] opponents) {
+        return OP_WEIGHT * table.winRate(pick.index())
+                + SYN_WEIGHT * average(pick, team, true)
+                + COUNTER_WEIGHT * average(pick, opponents, false);
+    }
+
+    private double average(Pick pick, Pick[] others, boolean synergy) {
+        double total = 0.0;
+        int count = 0;
+        for (Pick other : others) {
+            if (other.index() == pick.index()) continue;
+            double wr = DraftScorer.pairWinRate(table, pick.index(), pick.role(), other, synergy);
+            if (!Double.isNaN(wr)) {
+                total += wr;
+                count++;
+            }
+        }
+        return count == 0 ? 0.5 : total / count;
+    }
+
+    private Pick pick(int champion, Role role) {
+        return new Pick(champion, DraftScorer.laneRole(table, champion, role), null);
+    }
+
+    private final class Candidates extends RecursiveTask<double[]> {
+        private final Board root;
+        private final Role role;
+        private final int[] candidates;
+        private final int depth;
+
+        private Candidates(Board root, Role role, int[] candidates, int depth) {
+            this.root = root;
+            this.role = role;
+            this.candidates = candidates;
+            this.depth = depth;
+        }
+
+        @Override
+        protected double[] compute() {
+            List<Branch> branches = new ArrayList<>(candidates.length);
+            for (int champion : candidates) {
+                branches.add(new Branch(root.with(pick(champion, role), true), 0, depth));
+            }
+            invokeAll(branches);
+            double[] values = new double[candidates.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = branches.get(i).join();
+            }
+            return values;
+        }
+    }
+
+    private final class Branch extends RecursiveTask<Double> {
+        private final Board board;
+        private final int turn;
+        private final int depth;
+
+        private Branch(Board board, int turn, int depth) {
+            this.board = board;
+            this.turn = turn;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Double compute() {
+            return value(board, turn, depth);
+        }
+    }
+
+    private record Board(Pick[] ours, Pick[] theirs, boolean[] taken) {
+        private Board with(Pick pick, boolean ourPick) {
+            boolean[] nextTaken = taken.clone();
+            nextTaken[pick.index()] = true;
+            return ourPick
+                    ? new Board(append(ours, pick), theirs, nextTaken)
+                    : new Board(ours, append(theirs, pick), nextTaken);
+        }
+
+        private static Pick[] append(Pick[] picks, Pick pick) {
+            Pick[] next = Arrays.copyOf(picks, picks.length + 1);
+            next[picks.length] = pick;
+            return next;
+        }
+    }
+
+    public record Turn(boolean ours, Role role) {
+    }
+
+    public record Result(double[] values, int depth) {
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.service;
 
+import org.example.model.BracketGroup;
 import org.example.model.ChampionStats;
 import org.example.model.ChampionSummary;
 import org.example.model.PairWinRate;
@@ -7,6 +8,7 @@ import org.example.model.RecommendationContext;
 import org.example.model.Role;
 import org.example.model.SlotSelection;
 import org.example.model.Tier;
+import org.example.service.db.BinarySnapshot;
 import org.example.util.ChampionIconResolver;
 import org.example.util.ChampionNames;
 
@@ -14,6 +16,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -127,7 +130,12 @@ public class MockStatsService implements StatsService {
     }
 
     private ChampionStats generateStats(String championId) {
-        ChampionStats stats = new ChampionStats();
+        Set<String> names = new LinkedHashSet<>();
+        names.add(championId);
+        names.addAll(SAMPLE_SYNERGY);
+        names.addAll(SAMPLE_COUNTERS);
+        BinarySnapshot.Builder builder = new BinarySnapshot.Builder(names);
+        int champion = builder.indexOf(championId);
         double baseWr = WIN_RATES.getOrDefault(championId, 0.5);
         Random random = new Random(championId.hashCode());
         Role[] candidateRoles = {Role.TOP, Role.JUNGLE, Role.MID, Role.BOTTOM, Role.SUPPORT};
@@ -135,12 +143,19 @@ public class MockStatsService implements StatsService {
         for (int i = 0; i < 150; i++) {
             Role role = candidateRoles[random.nextInt(candidateRoles.length)];
             boolean win = random.nextDouble() < baseWr;
-            stats.addGame(win, role.name());
+            builder.addGames(champion, win ? 1 : 0, 1);
+            builder.addRole(champion, role, 1);
         }
 
-        SAMPLE_SYNERGY.forEach(partner -> stats.addSynergy(partner, random.nextDouble() < baseWr));
-        SAMPLE_COUNTERS.forEach(enemy -> stats.addCounter(enemy, random.nextDouble() < baseWr - 0.02));
-        return stats;
+        for (String partner : SAMPLE_SYNERGY) {
+            boolean win = random.nextDouble() < baseWr;
+            builder.addSynergy(champion, Role.UNKNOWN, builder.indexOf(partner), Role.UNKNOWN, win ? 1 : 0, 1);
+        }
+        for (String enemy : SAMPLE_COUNTERS) {
+            boolean win = random.nextDouble() < baseWr - 0.02;
+            builder.addCounter(champion, Role.UNKNOWN, builder.indexOf(enemy), Role.UNKNOWN, win ? 1 : 0, 1);
+        }
+        return builder.build(BracketGroup.ALL, 0, -1L).championStats().get(championId);
     }
 
     private Role sampleRole(String championId) {
@@ -0,0 +1,102 @@
+package org.example.service;
+
+import org.example.model.BracketGroup;
+import org.example.model.ChampionSummary;
+import org.example.model.RecommendationContext;
+import org.example.model.Role;
+import org.example.model.SlotSelection;
+import org.example.util.ChampionNames;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+public final class RecommendationCache {
+    private final int capacity;
+    private final Map<Key, Ranked> entries;
+    private long version = -1;
+
+    public RecommendationCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Ranked> eldest) {
+                return size() > RecommendationCache.this.capacity;
+            }
+        };
+    }
+
+    public synchronized Ranked get(Key key, long version) {
+        return advance(version) ? entries.get(key) : null;
+    }
+
+    public synchronized void put(Key key, long version, List<ChampionSummary> rows, boolean complete) {
+        if (advance(version)) {
+            entries.put(key, new Ranked(List.copyOf(rows), complete));
+        }
+    }
+
+    private boolean advance(long version) {
+        if (version > this.version) {
+            entries.clear();
+            this.version = version;
+        }
+        return version == this.version;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public static Key key(BracketGroup group, RecommendationContext context) {
+        if (context == null) {
+            return new Key(group, List.of(), List.of(), List.of(), Role.UNKNOWN, true);
+        }
+        return new Key(
+                group,
+                picks(context.allySelections()),
+                picks(context.enemySelections()),
+                List.copyOf(canonical(context.bannedChampions())),
+                context.targetRole(),
+                context.allyPerspective()
+        );
+    }
+
+    private static List<String> picks(List<SlotSelection> selections) {
+        List<String> picks = new ArrayList<>(selections.size());
+        for (SlotSelection selection : selections) {
+            String canonical = ChampionNames.canonicalName(selection.champion());
+            if (canonical != null && !canonical.isBlank()) {
+                picks.add(canonical + ":" + (selection.role() == null ? Role.UNKNOWN : selection.role()).name());
+            }
+        }
+        picks.sort(null);
+        return List.copyOf(picks);
+    }
+
+    private static TreeSet<String> canonical(List<String> names) {
+        TreeSet<String> canonical = new TreeSet<>();
+        for (String name : names) {
+            String value = ChampionNames.canonicalName(name);
+            if (value != null && !value.isBlank()) {
+                canonical.add(value);
+            }
+        }
+        return canonical;
+    }
+
+    public record Ranked(List<ChampionSummary> rows, boolean complete) {
+    }
+
+    public record Key(
+            BracketGroup group,
+            List<String> allies,
+            List<String> enemies,
+            List<String> bans,
+            Role targetRole,
+            boolean allyPerspective
+    ) {
+    }
+}
@@ -3,48 +3,51 @@ package org.example.service;
 import com.merakianalytics.orianna.Orianna;
 import com.merakianalytics.orianna.types.common.Platform;
 
+import org.example.model.BracketGroup;
 import org.example.model.ChampionStats;
 import org.example.model.ChampionSummary;
-import org.example.model.PairWinRate;
+import org.example.model.DraftOutlook;
+import org.example.model.DraftTurn;
 import org.example.model.RecommendationContext;
 import org.example.model.Role;
 import org.example.model.SlotSelection;
-import org.example.model.StatsSnapshot;
 import org.example.model.Tier;
-import org.example.model.WinPlay;
-import org.example.service.db.SnapshotRebuilder;
-import java.sql.SQLException;
+import org.example.service.DraftScorer.Metrics;
+import org.example.service.DraftScorer.Pick;
+import org.example.service.db.BinarySnapshot;
+import org.example.service.db.SnapshotManager;
 
 import org.example.util.AppPaths;
 import org.example.util.ChampionIconResolver;
 import org.example.util.ChampionNames;
+import org.example.util.TopK;
 
-import java.io.File;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
-public class RiotStatsService implements StatsService {
+public class RiotStatsService implements StatsService, AutoCloseable {
     private static final double OP_WEIGHT = 0.5;
     private static final double SYN_WEIGHT = 0.25;
     private static final double COUNTER_WEIGHT = 0.25;
-    private static final int MIN_PAIR_GAMES = 5;
     private static final int MIN_TOTAL_GAMES = 30;
+    private static final int PATCH_WINDOW = parsePatchWindow();
+    private static final int RECOMMENDATION_CACHE_SIZE = 256;
+    private static final long LOOKAHEAD_BUDGET_NANOS = 100_000_000L;
     private final Platform platform;
     private final StatsService fallback = new MockStatsService();
-    private final File snapshotFile = AppPaths.snapshotPath().toFile();
-    private StatsSnapshot cachedSnapshot;
-    private long cachedStamp = -1L;
+    private final SnapshotManager snapshots = new SnapshotManager(AppPaths.snapshotPath(), PATCH_WINDOW);
+    private final DraftScorer scorer = new DraftScorer();
+    private final RecommendationCache recommendations = new RecommendationCache(RECOMMENDATION_CACHE_SIZE);
+    private volatile BracketGroup bracketGroup = BracketGroup.parse(System.getProperty("mejais.bracket",
+            System.getenv().getOrDefault("MEJAIS_BRACKET", "ALL")));
 
     public RiotStatsService(String apiKey, String platformTag) {
         this.platform = parsePlatform(platformTag);
+        snapshots.prefetch(bracketGroup);
         if (apiKey != null && !apiKey.isBlank()) {
             Orianna.setRiotAPIKey(apiKey);
             Orianna.setDefaultPlatform(this.platform);
@@ -53,81 +56,127 @@ public class RiotStatsService implements StatsService {
 
     @Override
     public List<ChampionSummary> fetchRecommended(RecommendationContext context) {
+        return fetchRecommended(context, 0, context == null ? 20 : context.limit());
+    }
+
+    @Override
+    public List<ChampionSummary> fetchRecommended(RecommendationContext context, int offset, int count) {
         try {
-            StatsSnapshot snapshot = snapshot();
-            if (snapshot == null || snapshot.champions() == null || snapshot.champions().isEmpty()) {
-                return fallback.fetchRecommended(context);
+            int start = Math.max(0, offset);
+            int end = (int) Math.min(Integer.MAX_VALUE, (long) start + Math.max(0, count));
+            long version = snapshots.version();
+            RecommendationCache.Key key = RecommendationCache.key(bracketGroup, context);
+            RecommendationCache.Ranked cached = recommendations.get(key, version);
+            if (cached != null && (cached.complete() || cached.rows().size() >= end)) {
+                return slice(cached.rows(), start, end);
+            }
+            BinarySnapshot snapshot = snapshots.get(key.group());
+            if (snapshot == null) {
+                return List.of();
             }
-            List<ChampionSummary> summaries = new ArrayList<>();
-            Set<String> excluded = excludedChampions(context);
-            int limit = context == null ? 20 : context.limit();
-
-            for (var entry : snapshot.champions().entrySet()) {
-                String champion = ChampionNames.canonicalName(entry.getKey());
-                if (excluded.contains(champion)) continue;
-                ChampionStats stats = entry.getValue();
-                if (stats.games() < MIN_TOTAL_GAMES) continue;
-
-                if (context != null && context.targetRole() != Role.UNKNOWN) {
-                    if (!stats.allRoles().contains(context.targetRole())) {
-                        continue;
-                    }
+            if (snapshot.isEmpty()) {
+                return fallback.fetchRecommended(context, offset, count);
+            }
+            Draft draft = draft(snapshot, context);
+            Role targetRole = context == null ? Role.UNKNOWN : context.targetRole();
+            List<ChampionSummary> rows;
+            boolean complete;
+
+            synchronized (scorer) {
+                scorer.update(snapshot, targetRole, draft.synergy(), draft.counter());
+                int[] ranked = rank(snapshot, excludedChampions(context), targetRole, end);
+                complete = ranked.length < end;
+                // Rankings are deterministic per key and version, so a cached shorter page is a prefix of this one.
+                List<ChampionSummary> known = cached == null ? List.of() : cached.rows();
+                rows = new ArrayList<>(ranked.length);
+                rows.addAll(known);
+                for (int i = known.size(); i < ranked.length; i++) {
+                    int champion = ranked[i];
+                    rows.add(summarize(snapshot, champion, ChampionNames.canonicalName(snapshot.name(champion)),
+                            scorer.synergy(champion, draft.synergy()), scorer.counter(champion, draft.counter())));
                 }
-
-                double opRaw = stats.winRate();
-                double op = clamp(opRaw);
-                PairMetrics synergy = synergyMetrics(stats, context);
-                PairMetrics counter = counterMetrics(stats, context);
-                double synWr = synergy.winRate();
-                double coWr = counter.winRate();
-                Tier opTier = Tier.fromWinRate(op);
-                Tier synTier = Tier.fromWinRate(synWr, true);
-                Tier coTier = Tier.fromWinRate(coWr, true);
-                double score = weightedScore(opTier, synTier, coTier);
-
-                Role preferredRole = stats.primaryRole();
-                summaries.add(new ChampionSummary(
-                        champion,
-                        ChampionNames.displayName(champion),
-                        opTier,
-                        synTier,
-                        coTier,
-                        score,
-                        ChampionIconResolver.load(champion),
-                        preferredRole,
-                        stats.allRoles(),
-                        opRaw,
-                        synWr,
-                        coWr,
-                        synergy.entries(),
-                        counter.entries()
-                ));
             }
 
-            summaries.sort(Comparator.comparingDouble(ChampionSummary::score).reversed());
-            return summaries.size() <= limit ? summaries : summaries.subList(0, limit);
+            recommendations.put(key, version, rows, complete);
+            return slice(rows, start, end);
         } catch (Exception ex) {
-            return fallback.fetchRecommended(context);
+            return fallback.fetchRecommended(context, offset, count);
+        }
+    }
+
+    private int[] rank(BinarySnapshot snapshot, Set<String> excluded, Role targetRole, int limit) {
+        TopK top = new TopK(Math.min(limit, snapshot.championCount()));
+        for (int champion = 0; champion < snapshot.championCount(); champion++) {
+            if (snapshot.games(champion) < MIN_TOTAL_GAMES) continue;
+            if (targetRole != Role.UNKNOWN && !snapshot.allRoles(champion).contains(targetRole)) continue;
+            if (excluded.contains(ChampionNames.canonicalName(snapshot.name(champion)))) continue;
+            top.offer(champion, score(snapshot.winRate(champion), scorer.synergyWinRate(champion), scorer.counterWinRate(champion)));
+        }
+        return top.drain();
+    }
+
+    private List<ChampionSummary> slice(List<ChampionSummary> rows, int start, int end) {
+        return start >= rows.size() ? List.of() : rows.subList(start, Math.min(end, rows.size()));
+    }
+
+    @Override
+    public DraftOutlook fetchDraftOutlook(RecommendationContext context, List<DraftTurn> remainingTurns, List<String> candidates) {
+        BinarySnapshot snapshot = snapshot();
+        if (snapshot == null || snapshot.isEmpty() || candidates == null || candidates.isEmpty()) {
+            return DraftOutlook.EMPTY;
+        }
+        Draft draft = draft(snapshot, context);
+        boolean allyPerspective = context == null || context.allyPerspective();
+        boolean[] taken = new boolean[snapshot.championCount()];
+        for (String name : excludedChampions(context)) {
+            int index = snapshot.indexOf(name);
+            if (index >= 0) taken[index] = true;
+        }
+        List<String> names = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        for (String candidate : candidates) {
+            String canonical = ChampionNames.canonicalName(candidate);
+            int index = canonical == null ? -1 : snapshot.indexOf(canonical);
+            if (index >= 0 && !taken[index] && !names.contains(canonical)) {
+                names.add(canonical);
+                indices.add(index);
+            }
+        }
+        List<DraftSearch.Turn> turns = new ArrayList<>();
+        for (DraftTurn turn : remainingTurns == null ? List.<DraftTurn>of() : remainingTurns) {
+            turns.add(new DraftSearch.Turn(turn.ally() == allyPerspective, turn.role() == null ? Role.UNKNOWN : turn.role()));
+        }
+
+        DraftSearch.Result result = DraftSearch.search(snapshot, draft.synergy(), draft.counter(), taken,
+                context == null ? Role.UNKNOWN : context.targetRole(), turns,
+                indices.stream().mapToInt(Integer::intValue).toArray(), MIN_TOTAL_GAMES, LOOKAHEAD_BUDGET_NANOS);
+        if (result.depth() < 0) {
+            return DraftOutlook.EMPTY;
         }
+        Map<String, Double> values = new java.util.LinkedHashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            values.put(names.get(i), result.values()[i]);
+        }
+        return new DraftOutlook(values, result.depth());
     }
 
     @Override
     public Optional<ChampionStats> findChampionStats(String championId) {
         String canonical = ChampionNames.canonicalName(championId);
-        StatsSnapshot snapshot = snapshot();
-        if (snapshot == null || snapshot.champions() == null) {
+        BinarySnapshot snapshot = snapshot();
+        if (snapshot == null) {
             return Optional.empty();
         }
-        return Optional.ofNullable(snapshot.champions().get(canonical));
+        return Optional.ofNullable(snapshot.championStats().get(canonical));
     }
 
     @Override
     public Map<String, ChampionStats> allChampionStats() {
-        StatsSnapshot snapshot = snapshot();
-        if (snapshot == null || snapshot.champions() == null || snapshot.champions().isEmpty()) {
+        BinarySnapshot snapshot = snapshot();
+        if (snapshot == null || snapshot.isEmpty()) {
             return Map.of();
         }
-        return Collections.unmodifiableMap(snapshot.champions());
+        return snapshot.championStats();
     }
 
     @Override
@@ -137,61 +186,68 @@ public class RiotStatsService implements StatsService {
             return Optional.empty();
         }
 
-        StatsSnapshot snapshot = snapshot();
-        if (snapshot == null || snapshot.champions() == null || !snapshot.champions().containsKey(canonicalId)) {
-            return Optional.empty();
-        }
-
-        ChampionStats stats = snapshot.champions().get(canonicalId);
-        if (stats.games() < MIN_TOTAL_GAMES) {
+        BinarySnapshot snapshot = snapshot();
+        int champion = snapshot == null ? -1 : snapshot.indexOf(canonicalId);
+        if (champion < 0 || snapshot.games(champion) < MIN_TOTAL_GAMES) {
             return Optional.empty();
         }
+        Draft draft = draft(snapshot, context);
+        Role role = DraftScorer.laneRole(snapshot, champion, context == null ? Role.UNKNOWN : context.targetRole());
+        return Optional.of(summarize(snapshot, champion, canonicalId,
+                DraftScorer.compute(snapshot, champion, role, draft.synergy(), true),
+                DraftScorer.compute(snapshot, champion, role, draft.counter(), false)));
+    }
 
-        double opRaw = stats.winRate();
-        double op = clamp(opRaw);
-        PairMetrics synergy = synergyMetrics(stats, context);
-        PairMetrics counter = counterMetrics(stats, context);
-        double synWr = synergy.winRate();
-        double coWr = counter.winRate();
-        Tier opTier = Tier.fromWinRate(op);
+    private ChampionSummary summarize(BinarySnapshot snapshot, int champion, String canonical, Metrics synergy, Metrics counter) {
+        double opRaw = snapshot.winRate(champion);
+        double synWr = clampPair(synergy.winRate());
+        double coWr = clampPair(counter.winRate());
+        Tier opTier = Tier.fromWinRate(clamp(opRaw));
         Tier synTier = Tier.fromWinRate(synWr, true);
         Tier coTier = Tier.fromWinRate(coWr, true);
         double score = weightedScore(opTier, synTier, coTier);
 
-        Role preferredRole = stats.primaryRole();
-        return Optional.of(new ChampionSummary(
-                canonicalId,
-                ChampionNames.displayName(canonicalId),
+        return new ChampionSummary(
+                canonical,
+                ChampionNames.displayName(canonical),
                 opTier,
                 synTier,
                 coTier,
                 score,
-                ChampionIconResolver.load(canonicalId),
-                preferredRole,
-                stats.allRoles(),
+                ChampionIconResolver.load(canonical),
+                snapshot.primaryRole(champion),
+                snapshot.allRoles(champion),
                 opRaw,
                 synWr,
                 coWr,
                 synergy.entries(),
                 counter.entries()
-        ));
+        );
     }
 
+    @Override
+    public BracketGroup bracketGroup() {
+        return bracketGroup;
+    }
 
+    @Override
+    public void selectBracketGroup(BracketGroup group) {
+        bracketGroup = group == null ? BracketGroup.ALL : group;
+        snapshots.prefetch(bracketGroup);
+    }
 
-    private StatsSnapshot snapshot() {
-        long modified = snapshotFile.exists() ? snapshotFile.lastModified() : -1L;
-        if (cachedSnapshot != null && cachedStamp == modified) {
-            return cachedSnapshot;
-        }
-        try {
-            cachedSnapshot = new SnapshotRebuilder().rebuildSnapshot();
-            cachedStamp = modified;
-        } catch (SQLException e) {
-            System.err.println("Failed to load stats from database: " + e.getMessage());
-            cachedSnapshot = null;
-        }
-        return cachedSnapshot;
+    @Override
+    public void close() {
+        snapshots.close();
+    }
+
+    @Override
+    public void addSnapshotListener(Runnable listener) {
+        snapshots.addListener(listener);
+    }
+
+    private BinarySnapshot snapshot() {
+        return snapshots.get(bracketGroup);
     }
 
     private Set<String> excludedChampions(RecommendationContext context) {
@@ -210,58 +266,38 @@ public class RiotStatsService implements StatsService {
         }
     }
 
-    private PairMetrics synergyMetrics(ChampionStats stats, RecommendationContext context) {
-        if (context == null) return PairMetrics.EMPTY;
-        List<SlotSelection> group = context.allyPerspective()
-                ? context.allySelections()
-                : context.enemySelections();
-        return pairMetrics(stats.synergy(), canonicalize(group));
+    private Draft draft(BinarySnapshot snapshot, RecommendationContext context) {
+        if (context == null) return Draft.EMPTY;
+        List<SlotSelection> synergy = context.allyPerspective() ? context.allySelections() : context.enemySelections();
+        List<SlotSelection> counter = context.allyPerspective() ? context.enemySelections() : context.allySelections();
+        return new Draft(resolve(snapshot, synergy), resolve(snapshot, counter));
     }
 
-    private PairMetrics counterMetrics(ChampionStats stats, RecommendationContext context) {
-        if (context == null) return PairMetrics.EMPTY;
-        List<SlotSelection> group = context.allyPerspective()
-                ? context.enemySelections()
-                : context.allySelections();
-        return pairMetrics(stats.counters(), canonicalize(group));
-    }
-
-    private PairMetrics pairMetrics(Map<String, WinPlay> data, List<String> names) {
-        if (names.isEmpty()) {
-            return PairMetrics.EMPTY;
-        }
-        double total = 0.0;
-        int count = 0;
-        List<PairWinRate> entries = new ArrayList<>();
-        for (String name : names) {
-            WinPlay wp = data.get(name);
-            if (wp != null && wp.getGames() >= MIN_PAIR_GAMES) {
-                double wr = wp.winRate();
-                total += wr;
-                count++;
-                entries.add(new PairWinRate(ChampionNames.displayName(name), wr));
-            }
-        }
-        if (count == 0) {
-            return PairMetrics.EMPTY;
-        }
-        double average = clamp(total / count);
-        return new PairMetrics(average, List.copyOf(entries));
-    }
-
-    private List<String> canonicalize(List<SlotSelection> selections) {
+    private List<Pick> resolve(BinarySnapshot snapshot, List<SlotSelection> selections) {
         if (selections == null || selections.isEmpty()) {
             return List.of();
         }
-        Set<String> unique = new java.util.LinkedHashSet<>();
+        Map<String, Pick> unique = new java.util.LinkedHashMap<>();
         for (SlotSelection selection : selections) {
             if (selection == null) continue;
             String canonical = ChampionNames.canonicalName(selection.champion());
-            if (canonical != null && !canonical.isBlank()) {
-                unique.add(canonical);
+            if (canonical == null || canonical.isBlank() || unique.containsKey(canonical)) continue;
+            int index = snapshot.indexOf(canonical);
+            if (index >= 0) {
+                Role role = selection.role() == null ? Role.UNKNOWN : selection.role();
+                unique.put(canonical, new Pick(index, role, ChampionNames.displayName(canonical)));
             }
         }
-        return unique.isEmpty() ? List.of() : List.copyOf(unique);
+        return unique.isEmpty() ? List.of() : List.copyOf(unique.values());
+    }
+
+    private double score(double opRaw, double synergy, double counter) {
+        return weightedScore(Tier.fromWinRate(clamp(opRaw)), Tier.fromWinRate(clampPair(synergy), true),
+                Tier.fromWinRate(clampPair(counter), true));
+    }
+
+    private double clampPair(double value) {
+        return Double.isNaN(value) ? Double.NaN : clamp(value);
     }
 
     private double clamp(double value) {
@@ -279,6 +315,16 @@ public class RiotStatsService implements StatsService {
         return base * weight;
     }
 
+    private static int parsePatchWindow() {
+        String value = System.getProperty("mejais.patchWindow",
+                System.getenv().getOrDefault("MEJAIS_PATCH_WINDOW", "0"));
+        try {
+            return Math.max(0, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
     private Platform parsePlatform(String tag) {
         if (tag == null || tag.isBlank()) return Platform.EUROPE_WEST;
         String normalized = tag.trim().toUpperCase().replace("-", "_");
@@ -289,7 +335,7 @@ public class RiotStatsService implements StatsService {
         }
     }
 
-    private record PairMetrics(double winRate, List<PairWinRate> entries) {
-        private static final PairMetrics EMPTY = new PairMetrics(Double.NaN, List.of());
+    private record Draft(List<Pick> synergy, List<Pick> counter) {
+        private static final Draft EMPTY = new Draft(List.of(), List.of());
     }
 }
@@ -1,8 +1,12 @@
 package org.example.service;
 
+import org.example.model.BracketGroup;
 import org.example.model.ChampionStats;
 import org.example.model.ChampionSummary;
+import org.example.model.DraftOutlook;
+import org.example.model.DraftTurn;
 import org.example.model.RecommendationContext;
+import org.example.model.Role;
 
 import java.util.List;
 import java.util.Map;
@@ -11,11 +15,34 @@ import java.util.Optional;
 public interface StatsService {
     List<ChampionSummary> fetchRecommended(RecommendationContext context);
 
+    default List<ChampionSummary> fetchRecommended(RecommendationContext context, int offset, int count) {
+        int start = Math.max(0, offset);
+        int end = (int) Math.min(Integer.MAX_VALUE, (long) start + Math.max(0, count));
+        RecommendationContext window = context == null
+                ? new RecommendationContext(null, null, null, Role.UNKNOWN, true, end)
+                : new RecommendationContext(context.allySelections(), context.enemySelections(),
+                        context.bannedChampions(), context.targetRole(), context.allyPerspective(), end);
+        List<ChampionSummary> rows = fetchRecommended(window);
+        return start >= rows.size() ? List.of() : rows.subList(start, Math.min(end, rows.size()));
+    }
+
+    default DraftOutlook fetchDraftOutlook(RecommendationContext context, List<DraftTurn> remainingTurns, List<String> candidates) {
+        return DraftOutlook.EMPTY;
+    }
+
     Optional<ChampionStats> findChampionStats(String championId);
 
     Map<String, ChampionStats> allChampionStats();
 
     Optional<ChampionSummary> fetchChampionSummary(String championId, RecommendationContext context);
 
+    default BracketGroup bracketGroup() {
+        return BracketGroup.ALL;
+    }
+
+    default void selectBracketGroup(BracketGroup group) {
+    }
 
+    default void addSnapshotListener(Runnable listener) {
+    }
 }
@@ -10,9 +10,25 @@ public final class StatsServiceFactory {
     private static final String API_KEY_PROPERTY = "RIOT_API_KEY";
     private static final String FORCE_LIVE_PROPERTY = "RIOT_FORCE_LIVE";
 
+    private static StatsService shared;
+
     private StatsServiceFactory() {}
 
-    public static StatsService create() {
+    public static synchronized StatsService create() {
+        if (shared == null) {
+            shared = build();
+        }
+        return shared;
+    }
+
+    public static synchronized void shutdown() {
+        if (shared instanceof RiotStatsService riot) {
+            riot.close();
+        }
+        shared = null;
+    }
+
+    private static StatsService build() {
         String platformTag = System.getenv().getOrDefault(PLATFORM_ENV, "EUROPE_WEST");
         String apiKey = System.getProperty(API_KEY_PROPERTY);
         boolean forceLive = Boolean.parseBoolean(System.getProperty(FORCE_LIVE_PROPERTY, "false"));
@@ -0,0 +1,508 @@
+package org.example.service.db;
+
+import org.example.model.BracketGroup;
+import org.example.model.ChampionStats;
+import org.example.model.Role;
+import org.example.model.StatsTable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+public final class BinarySnapshot implements StatsTable {
+    private static final int MAGIC = 0x4D4A5342;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int ROLES = Role.values().length;
+    private static final int PRIMARY_ROLES = 2;
+    private static final int LANE_ENTRY = 12;
+    private static final double ROLE_SHARE_THRESHOLD = 0.02;
+
+    private final ByteBuffer buffer;
+    private final int groupOrdinal;
+    private final int patchWindow;
+    private final long sourceStamp;
+    private final int championCount;
+    private final int overallOffset;
+    private final int roleOffset;
+    private final int primaryRoleOffset;
+    private final int synergyOffset;
+    private final int counterOffset;
+    private final int laneSynergyOffset;
+    private final int laneCounterOffset;
+    private final String[] names;
+    private final List<List<Role>> roles;
+    private volatile Map<String, ChampionStats> championStats;
+
+    private BinarySnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a binary stats snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported binary snapshot version " + buffer.getInt(4));
+        }
+        if (buffer.getInt(60) != buffer.capacity()) {
+            throw new IOException("Truncated binary snapshot");
+        }
+        this.groupOrdinal = buffer.getInt(8);
+        this.patchWindow = buffer.getInt(12);
+        this.sourceStamp = buffer.getLong(16);
+        this.championCount = buffer.getInt(24);
+        int namesOffset = buffer.getInt(28);
+        this.overallOffset = buffer.getInt(32);
+        this.roleOffset = buffer.getInt(36);
+        this.primaryRoleOffset = buffer.getInt(40);
+        this.synergyOffset = buffer.getInt(44);
+        this.counterOffset = buffer.getInt(48);
+        this.laneSynergyOffset = buffer.getInt(52);
+        this.laneCounterOffset = buffer.getInt(56);
+
+        this.names = new String[championCount];
+        int position = namesOffset;
+        for (int i = 0; i < championCount; i++) {
+            int length = buffer.getShort(position) & 0xffff;
+            byte[] bytes = new byte[length];
+            buffer.get(position + 2, bytes);
+            names[i] = new String(bytes, StandardCharsets.UTF_8);
+            position += 2 + length;
+        }
+        List<List<Role>> primaryRoles = new ArrayList<>(championCount);
+        for (int i = 0; i < championCount; i++) {
+            List<Role> champRoles = new ArrayList<>(PRIMARY_ROLES);
+            for (int slot = 0; slot < PRIMARY_ROLES; slot++) {
+                int code = buffer.getInt(primaryRoleOffset + (i * PRIMARY_ROLES + slot) * 4);
+                if (code >= 0) champRoles.add(Role.fromCode(code));
+            }
+            primaryRoles.add(champRoles.isEmpty() ? List.of(Role.UNKNOWN) : List.copyOf(champRoles));
+        }
+        this.roles = primaryRoles;
+    }
+
+    public static BinarySnapshot map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new BinarySnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static BinarySnapshot wrap(byte[] encoded) throws IOException {
+        return new BinarySnapshot(ByteBuffer.wrap(encoded));
+    }
+
+    public static Path cacheFile(Path database, BracketGroup group, int patchWindow, long sourceStamp) {
+        return database.resolveSibling("snapshot-cache").resolve(cachePrefix(group, patchWindow) + sourceStamp + ".bin");
+    }
+
+    public static void write(byte[] encoded, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, encoded);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static void pruneStale(Path current, BracketGroup group, int patchWindow) {
+        String prefix = cachePrefix(group, patchWindow);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(current.getParent(), prefix + "*.bin")) {
+            for (Path file : files) {
+                if (file.equals(current)) continue;
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to prune stale binary snapshots: " + e.getMessage());
+        }
+    }
+
+    private static String cachePrefix(BracketGroup group, int patchWindow) {
+        return group.name().toLowerCase(Locale.ROOT) + "-w" + patchWindow + "-";
+    }
+
+    public static final class Builder {
+        private final String[] names;
+        private final int[] overall;
+        private final int[] roles;
+        private final int[] synergy;
+        private final int[] counters;
+        private final LaneTable laneSynergy = new LaneTable();
+        private final LaneTable laneCounters = new LaneTable();
+
+        public Builder(Collection<String> championNames) {
+            this.names = championNames.stream().filter(Objects::nonNull).distinct().sorted().toArray(String[]::new);
+            int n = names.length;
+            this.overall = new int[n * 2];
+            this.roles = new int[n * ROLES];
+            this.synergy = new int[n * n * 2];
+            this.counters = new int[n * n * 2];
+        }
+
+        public int indexOf(String name) {
+            int found = name == null ? -1 : Arrays.binarySearch(names, name);
+            return found >= 0 ? found : -1;
+        }
+
+        public void addGames(int champion, int wins, int games) {
+            overall[champion * 2] += wins;
+            overall[champion * 2 + 1] += games;
+        }
+
+        public void addRole(int champion, Role role, int plays) {
+            roles[champion * ROLES + role.code()] += plays;
+        }
+
+        public void addSynergy(int champion, Role role, int ally, Role allyRole, int wins, int games) {
+            add(synergy, champion, ally, wins, games);
+            laneSynergy.add(laneKey(champion, role, ally, allyRole), wins, games);
+            if (ally != champion) {
+                add(synergy, ally, champion, wins, games);
+            }
+            if (ally != champion || role != allyRole) {
+                laneSynergy.add(laneKey(ally, allyRole, champion, role), wins, games);
+            }
+        }
+
+        public void addCounter(int champion, Role role, int enemy, Role enemyRole, int wins, int games) {
+            add(counters, champion, enemy, wins, games);
+            laneCounters.add(laneKey(champion, role, enemy, enemyRole), wins, games);
+        }
+
+        private void add(int[] matrix, int champion, int other, int wins, int games) {
+            int cell = (champion * names.length + other) * 2;
+            matrix[cell] += wins;
+            matrix[cell + 1] += games;
+        }
+
+        private static long laneKey(int champion, Role role, int other, Role otherRole) {
+            return ((long) (champion * ROLES + role.code()) << 32) | (other * ROLES + otherRole.code());
+        }
+
+        public BinarySnapshot build(BracketGroup group, int patchWindow, long sourceStamp) {
+            try {
+                return wrap(encode(group, patchWindow, sourceStamp));
+            } catch (IOException e) {
+                throw new IllegalStateException("Encoded an unreadable snapshot", e);
+            }
+        }
+
+        public byte[] encode(BracketGroup group, int patchWindow, long sourceStamp) {
+            int n = names.length;
+            byte[][] encodedNames = new byte[n][];
+            int namesSize = 0;
+            for (int i = 0; i < n; i++) {
+                encodedNames[i] = names[i].getBytes(StandardCharsets.UTF_8);
+                namesSize += 2 + encodedNames[i].length;
+            }
+
+            int namesOffset = HEADER_SIZE;
+            int overallOffset = align(namesOffset + namesSize);
+            int roleOffset = overallOffset + n * 8;
+            int primaryRoleOffset = roleOffset + n * ROLES * 4;
+            int synergyOffset = primaryRoleOffset + n * PRIMARY_ROLES * 4;
+            int counterOffset = synergyOffset + n * n * 8;
+            int laneSynergyOffset = counterOffset + n * n * 8;
+            int laneCounterOffset = laneSynergyOffset + (n * ROLES + 1) * 4 + laneSynergy.size * LANE_ENTRY;
+            int size = laneCounterOffset + (n * ROLES + 1) * 4 + laneCounters.size * LANE_ENTRY;
+
+            ByteBuffer out = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(0, MAGIC);
+            out.putInt(4, VERSION);
+            out.putInt(8, group.ordinal());
+            out.putInt(12, patchWindow);
+            out.putLong(16, sourceStamp);
+            out.putInt(24, n);
+            out.putInt(28, namesOffset);
+            out.putInt(32, overallOffset);
+            out.putInt(36, roleOffset);
+            out.putInt(40, primaryRoleOffset);
+            out.putInt(44, synergyOffset);
+            out.putInt(48, counterOffset);
+            out.putInt(52, laneSynergyOffset);
+            out.putInt(56, laneCounterOffset);
+            out.putInt(60, size);
+
+            int position = namesOffset;
+            for (byte[] name : encodedNames) {
+                out.putShort(position, (short) name.length);
+                out.put(position + 2, name);
+                position += 2 + name.length;
+            }
+            putInts(out, overallOffset, overall);
+            putInts(out, roleOffset, roles);
+            for (int i = 0; i < n; i++) {
+                int[] primary = rankRoles(overall[i * 2 + 1], roles, i * ROLES);
+                for (int slot = 0; slot < PRIMARY_ROLES; slot++) {
+                    out.putInt(primaryRoleOffset + (i * PRIMARY_ROLES + slot) * 4, primary[slot]);
+                }
+            }
+            putInts(out, synergyOffset, synergy);
+            putInts(out, counterOffset, counters);
+            laneSynergy.write(out, laneSynergyOffset, n * ROLES);
+            laneCounters.write(out, laneCounterOffset, n * ROLES);
+            return out.array();
+        }
+
+        private static void putInts(ByteBuffer out, int offset, int[] values) {
+            out.position(offset);
+            out.asIntBuffer().put(values);
+            out.position(0);
+        }
+
+        private static int[] rankRoles(int games, int[] roles, int base) {
+            int total = 0;
+            for (int code = 0; code < ROLES; code++) {
+                total += roles[base + code];
+            }
+            total = Math.max(games, total);
+            int minimum = total > 0 ? (int) Math.ceil(total * ROLE_SHARE_THRESHOLD) : 0;
+
+            int[] ranked = {-1, -1};
+            int[] fallback = {-1, -1};
+            int picked = 0;
+            int fallbackPicked = 0;
+            boolean[] used = new boolean[ROLES];
+            for (int slot = 0; slot < ROLES && picked < PRIMARY_ROLES; slot++) {
+                int best = -1;
+                for (int code = 1; code < ROLES; code++) {
+                    if (used[code] || roles[base + code] <= 0) continue;
+                    if (best < 0 || roles[base + code] > roles[base + best]) best = code;
+                }
+                if (best < 0) break;
+                used[best] = true;
+                if (fallbackPicked < PRIMARY_ROLES) fallback[fallbackPicked++] = best;
+                if (roles[base + best] >= minimum) ranked[picked++] = best;
+            }
+            return picked > 0 ? ranked : fallback;
+        }
+    }
+
+    private static final class LaneTable {
+        private long[] keys = new long[1024];
+        private int[] wins = new int[1024];
+        private int[] games = new int[1024];
+        private int mask = 1023;
+        private int size;
+
+        private LaneTable() {
+            Arrays.fill(keys, -1L);
+        }
+
+        private void add(long key, int addWins, int addGames) {
+            int slot = slot(key);
+            while (keys[slot] != -1L && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == -1L) {
+                keys[slot] = key;
+                if (++size * 2 > keys.length) {
+                    grow();
+                    slot = slot(key);
+                    while (keys[slot] != key) {
+                        slot = (slot + 1) & mask;
+                    }
+                }
+            }
+            wins[slot] += addWins;
+            games[slot] += addGames;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9e3779b97f4a7c15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldWins = wins;
+            int[] oldGames = games;
+            keys = new long[oldKeys.length * 2];
+            wins = new int[keys.length];
+            games = new int[keys.length];
+            mask = keys.length - 1;
+            Arrays.fill(keys, -1L);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == -1L) continue;
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != -1L) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                wins[slot] = oldWins[i];
+                games[slot] = oldGames[i];
+            }
+        }
+
+        private void write(ByteBuffer out, int offset, int rows) {
+            long[] sorted = new long[size];
+            int count = 0;
+            for (long key : keys) {
+                if (key != -1L) sorted[count++] = key;
+            }
+            Arrays.sort(sorted);
+
+            int entries = offset + (rows + 1) * 4;
+            int row = 0;
+            for (int i = 0; i < size; i++) {
+                long key = sorted[i];
+                int slot = slot(key);
+                while (keys[slot] != key) {
+                    slot = (slot + 1) & mask;
+                }
+                int entryRow = (int) (key >>> 32);
+                while (row <= entryRow) {
+                    out.putInt(offset + row++ * 4, i);
+                }
+                int entry = entries + i * LANE_ENTRY;
+                out.putInt(entry, (int) key);
+                out.putInt(entry + 4, wins[slot]);
+                out.putInt(entry + 8, games[slot]);
+            }
+            while (row <= rows) {
+                out.putInt(offset + row++ * 4, size);
+            }
+        }
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    public boolean matches(BracketGroup group, int patchWindow, long sourceStamp) {
+        return groupOrdinal == group.ordinal() && this.patchWindow == patchWindow && this.sourceStamp == sourceStamp;
+    }
+
+    public boolean isEmpty() {
+        return championCount == 0;
+    }
+
+    @Override
+    public int championCount() {
+        return championCount;
+    }
+
+    @Override
+    public String name(int champion) {
+        return names[champion];
+    }
+
+    @Override
+    public int indexOf(String name) {
+        if (name == null) return -1;
+        int found = Arrays.binarySearch(names, name);
+        return found >= 0 ? found : -1;
+    }
+
+    @Override
+    public int wins(int champion) {
+        return buffer.getInt(overallOffset + champion * 8);
+    }
+
+    @Override
+    public int games(int champion) {
+        return buffer.getInt(overallOffset + champion * 8 + 4);
+    }
+
+    @Override
+    public int roleGames(int champion, Role role) {
+        return buffer.getInt(roleOffset + (champion * ROLES + role.code()) * 4);
+    }
+
+    @Override
+    public List<Role> allRoles(int champion) {
+        return roles.get(champion);
+    }
+
+    @Override
+    public int synergyWins(int champion, int ally) {
+        return buffer.getInt(synergyOffset + (champion * championCount + ally) * 8);
+    }
+
+    @Override
+    public int synergyGames(int champion, int ally) {
+        return buffer.getInt(synergyOffset + (champion * championCount + ally) * 8 + 4);
+    }
+
+    @Override
+    public int counterWins(int champion, int enemy) {
+        return buffer.getInt(counterOffset + (champion * championCount + enemy) * 8);
+    }
+
+    @Override
+    public int counterGames(int champion, int enemy) {
+        return buffer.getInt(counterOffset + (champion * championCount + enemy) * 8 + 4);
+    }
+
+    @Override
+    public int laneSynergy(int champion, Role role, int ally, Role allyRole) {
+        return findLane(laneSynergyOffset, champion, role, ally, allyRole);
+    }
+
+    @Override
+    public int laneCounter(int champion, Role role, int enemy, Role enemyRole) {
+        return findLane(laneCounterOffset, champion, role, enemy, enemyRole);
+    }
+
+    @Override
+    public int laneWins(int entry) {
+        return buffer.getInt(entry + 4);
+    }
+
+    @Override
+    public int laneGames(int entry) {
+        return buffer.getInt(entry + 8);
+    }
+
+    private int findLane(int offset, int champion, Role role, int other, Role otherRole) {
+        int row = champion * ROLES + role.code();
+        int entries = offset + (championCount * ROLES + 1) * 4;
+        int low = buffer.getInt(offset + row * 4);
+        int high = buffer.getInt(offset + row * 4 + 4) - 1;
+        int key = other * ROLES + otherRole.code();
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = entries + mid * LANE_ENTRY;
+            int midKey = buffer.getInt(entry);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    public Map<String, ChampionStats> championStats() {
+        Map<String, ChampionStats> stats = championStats;
+        if (stats == null) {
+            Map<String, ChampionStats> views = new LinkedHashMap<>(championCount * 2);
+            for (int c = 0; c < championCount; c++) {
+                views.put(names[c], new ChampionStats(this, c));
+            }
+            stats = Collections.unmodifiableMap(views);
+            championStats = stats;
+        }
+        return stats;
+    }
+}
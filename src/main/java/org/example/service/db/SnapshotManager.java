@@ -0,0 +1,182 @@
+package org.example.service.db;
+
+import org.example.model.BracketGroup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public final class SnapshotManager implements AutoCloseable {
+    private static final long POLL_SECONDS = 2;
+    private static final long SETTLE_MILLIS = 1_000;
+
+    private final File database;
+    private final int patchWindow;
+    private final SnapshotRebuilder rebuilder = new SnapshotRebuilder();
+    private final AtomicReference<Loaded> current;
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("snapshot-loader").daemon().factory());
+    private final Thread watcher;
+    private final Set<BracketGroup> pending = ConcurrentHashMap.newKeySet();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private volatile BinarySnapshot last;
+    private volatile boolean running = true;
+
+    public SnapshotManager(Path database, int patchWindow) {
+        this.database = database.toFile();
+        this.patchWindow = patchWindow;
+        this.current = new AtomicReference<>(new Loaded(0, stamp(), Map.of()));
+        this.watcher = Thread.ofPlatform().name("snapshot-watcher").daemon().start(this::watch);
+    }
+
+    // Never waits on the loader: a group that is not loaded yet is prefetched, and until it lands callers get the
+    // last snapshot they were served (or null before the first load) and are told through the listeners.
+    public BinarySnapshot get(BracketGroup group) {
+        BinarySnapshot snapshot = current.get().groups().get(group);
+        if (snapshot != null) {
+            last = snapshot;
+            return snapshot;
+        }
+        prefetch(group);
+        return last;
+    }
+
+    public void prefetch(BracketGroup group) {
+        if (running && !current.get().groups().containsKey(group) && pending.add(group)) {
+            loader.execute(() -> {
+                try {
+                    load(group);
+                } catch (IllegalStateException e) {
+                    System.err.println("Failed to load " + group.label() + " snapshot: " + e.getMessage());
+                } finally {
+                    pending.remove(group);
+                }
+            });
+        }
+    }
+
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public long version() {
+        return current.get().version();
+    }
+
+    private BinarySnapshot load(BracketGroup group) {
+        Loaded loaded = current.get();
+        BinarySnapshot existing = loaded.groups().get(group);
+        if (existing != null) {
+            return existing;
+        }
+        try {
+            BinarySnapshot snapshot = rebuilder.loadBinarySnapshot(group, patchWindow);
+            Map<BracketGroup, BinarySnapshot> groups = new EnumMap<>(BracketGroup.class);
+            groups.putAll(loaded.groups());
+            groups.put(group, snapshot);
+            current.set(new Loaded(loaded.version() + 1, loaded.stamp(), Collections.unmodifiableMap(groups)));
+            notifyListeners();
+            return snapshot;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private void refresh() {
+        long stamp = stamp();
+        Loaded loaded = current.get();
+        if (stamp == loaded.stamp() || System.currentTimeMillis() - stamp < SETTLE_MILLIS) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<BracketGroup, BinarySnapshot> groups = new EnumMap<>(BracketGroup.class);
+        for (BracketGroup group : loaded.groups().keySet()) {
+            try {
+                groups.put(group, rebuilder.loadBinarySnapshot(group, patchWindow));
+            } catch (SQLException e) {
+                System.err.println("Failed to reload " + group.label() + " snapshot, keeping the previous one: " + e.getMessage());
+                return;
+            }
+        }
+        current.set(new Loaded(loaded.version() + 1, stamp, Collections.unmodifiableMap(groups)));
+        notifyListeners();
+        System.out.printf("Reloaded %d stats snapshot(s) in %d ms.%n", groups.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void watch() {
+        try (WatchService service = FileSystems.getDefault().newWatchService()) {
+            database.toPath().getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            while (running) {
+                WatchKey key = service.poll(POLL_SECONDS, TimeUnit.SECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+                scheduleRefresh();
+            }
+        } catch (IOException e) {
+            System.err.println("Snapshot watch unavailable, polling instead: " + e.getMessage());
+            poll();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void poll() {
+        try {
+            while (running) {
+                TimeUnit.SECONDS.sleep(POLL_SECONDS);
+                scheduleRefresh();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void scheduleRefresh() {
+        if (running && stamp() != current.get().stamp()) {
+            loader.execute(this::refresh);
+        }
+    }
+
+    private void notifyListeners() {
+        for (Runnable listener : listeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                System.err.println("Snapshot listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private long stamp() {
+        return database.exists() ? database.lastModified() : -1L;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        watcher.interrupt();
+        loader.shutdownNow();
+    }
+
+    private record Loaded(long version, long stamp, Map<BracketGroup, BinarySnapshot> groups) {
+    }
+}
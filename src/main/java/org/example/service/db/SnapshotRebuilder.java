@@ -1,107 +1,357 @@
 package org.example.service.db;
 
 import org.example.collector.DatabaseManager;
-import org.example.model.ChampionStats;
-import org.example.model.StatsSnapshot;
-import org.example.model.WinPlay;
+import org.example.collector.dao.StatsDao;
+import org.example.model.BracketGroup;
+import org.example.model.Role;
+import org.example.util.AppPaths;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class SnapshotRebuilder {
 
-    public StatsSnapshot rebuildSnapshot() throws SQLException {
-        try (Connection conn = DatabaseManager.connect()) {
-            Map<Integer, String> championNames = getChampionNames(conn);
-            Map<String, ChampionStats> championStatsMap = new HashMap<>();
+    public BinarySnapshot rebuildSnapshot() throws SQLException {
+        return rebuildSnapshot(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    public BinarySnapshot rebuildSnapshot(int patch) throws SQLException {
+        return rebuildSnapshot(patch, patch);
+    }
+
+    public BinarySnapshot rebuildSnapshotForRecentPatches(int count) throws SQLException {
+        return rebuildSnapshotForRecentPatches(count, BracketGroup.ALL);
+    }
+
+    public BinarySnapshot rebuildSnapshotForRecentPatches(int count, BracketGroup group) throws SQLException {
+        int fromPatch;
+        try (Connection conn = DatabaseManager.connectReadOnly()) {
+            fromPatch = new StatsDao(conn).firstPatchOfRecent(count);
+        }
+        return load(new RawQuery(fromPatch, Integer.MAX_VALUE, group.minCode(), group.maxCode())).build(group, count, -1L);
+    }
+
+    public BinarySnapshot rebuildSnapshot(int fromPatch, int toPatch) throws SQLException {
+        return rebuildSnapshot(fromPatch, toPatch, BracketGroup.ALL);
+    }
+
+    public BinarySnapshot rebuildSnapshot(int fromPatch, int toPatch, BracketGroup group) throws SQLException {
+        return load(new RawQuery(fromPatch, toPatch, group.minCode(), group.maxCode())).build(group, 0, -1L);
+    }
 
-            for (String name : championNames.values()) {
-                championStatsMap.put(name, new ChampionStats());
+    public BinarySnapshot loadSnapshot(BracketGroup group, int patchWindow) throws SQLException {
+        return loadTable(group, patchWindow).build(group, patchWindow, -1L);
+    }
+
+    public BinarySnapshot loadBinarySnapshot(BracketGroup group, int patchWindow) throws SQLException {
+        File database = AppPaths.snapshotPath().toFile();
+        long stamp = database.exists() ? database.lastModified() : -1L;
+        Path file = BinarySnapshot.cacheFile(database.toPath(), group, patchWindow, stamp);
+        if (stamp > 0 && file.toFile().isFile()) {
+            try {
+                BinarySnapshot mapped = BinarySnapshot.map(file);
+                if (mapped.matches(group, patchWindow, stamp)) {
+                    return mapped;
+                }
+            } catch (IOException e) {
+                System.err.println("Discarding unreadable binary snapshot " + file + ": " + e.getMessage());
             }
+        }
 
-            loadOverallChampionStats(conn, championStatsMap, championNames);
-            loadRoleStats(conn, championStatsMap, championNames);
-            loadSynergyStats(conn, championStatsMap, championNames);
-            loadCounterStats(conn, championStatsMap, championNames);
+        long start = System.nanoTime();
+        byte[] encoded = loadTable(group, patchWindow).encode(group, patchWindow, stamp);
+        try {
+            if (stamp > 0) {
+                BinarySnapshot.write(encoded, file);
+                BinarySnapshot.pruneStale(file, group, patchWindow);
+                System.out.printf("Wrote %s binary snapshot %s (%d KB) in %d ms.%n",
+                        group.label(), file.getFileName(), encoded.length / 1024, (System.nanoTime() - start) / 1_000_000);
+                return BinarySnapshot.map(file);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write binary snapshot " + file + ": " + e.getMessage());
+        }
+        try {
+            return BinarySnapshot.wrap(encoded);
+        } catch (IOException e) {
+            throw new SQLException("Failed to encode binary snapshot", e);
+        }
+    }
 
-            return new StatsSnapshot(championStatsMap);
+    private BinarySnapshot.Builder loadTable(BracketGroup group, int patchWindow) throws SQLException {
+        StatsQuery query;
+        try (Connection conn = DatabaseManager.connectReadOnly()) {
+            if (hasRollup(conn, group, patchWindow)) {
+                query = new RollupQuery(group.name());
+            } else {
+                System.out.println("No " + group.label() + " roll-up for a " + patchWindow + "-patch window, aggregating raw rows...");
+                int fromPatch = new StatsDao(conn).firstPatchOfRecent(patchWindow);
+                query = new RawQuery(fromPatch, Integer.MAX_VALUE, group.minCode(), group.maxCode());
+            }
         }
+        return load(query);
     }
 
-    private Map<Integer, String> getChampionNames(Connection conn) throws SQLException {
-        Map<Integer, String> championNames = new HashMap<>();
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT id, name FROM champions")) {
-            while (rs.next()) {
-                championNames.put(rs.getInt("id"), rs.getString("name"));
+    private boolean hasRollup(Connection conn, BracketGroup group, int patchWindow) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT patch_window FROM rollup_info WHERE rollup = ?")) {
+            stmt.setString(1, group.name());
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == Math.max(0, patchWindow);
             }
         }
-        return championNames;
     }
 
-    private void loadOverallChampionStats(Connection conn, Map<String, ChampionStats> statsMap, Map<Integer, String> championNames) throws SQLException {
+    private BinarySnapshot.Builder load(StatsQuery query) throws SQLException {
+        long start = System.nanoTime();
+        Scan<String[]> names = scan("champions", this::championNames);
+        Future<Scan<Rows>> champions;
+        Future<Scan<Rows>> roles;
+        Future<Scan<Rows>> synergy;
+        Future<Scan<Rows>> counters;
+        try (ExecutorService executor = Executors.newFixedThreadPool(4, Thread.ofPlatform().name("snapshot-scan-", 0).daemon().factory())) {
+            champions = executor.submit(() -> scan("champion_stats", conn -> Rows.read(query.champions(conn), 3, false)));
+            roles = executor.submit(() -> scan("role_stats", conn -> Rows.read(query.roles(conn), 2, true)));
+            synergy = executor.submit(() -> scan("synergy_stats", conn -> Rows.read(query.synergy(conn), 6, false)));
+            counters = executor.submit(() -> scan("counter_stats", conn -> Rows.read(query.counters(conn), 6, false)));
+        }
+
+        long mergeStart = System.nanoTime();
+        BinarySnapshot.Builder snapshot = merge(names.result(), await(champions), await(roles), await(synergy), await(counters));
+        System.out.printf("Loaded stats snapshot in %d ms: champions %s, champion_stats %s, role_stats %s, synergy_stats %s, counter_stats %s, merge %d ms.%n",
+                (System.nanoTime() - start) / 1_000_000, names, await(champions), await(roles), await(synergy), await(counters),
+                (System.nanoTime() - mergeStart) / 1_000_000);
+        return snapshot;
+    }
+
+    private <T> Scan<T> scan(String table, ScanTask<T> task) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseManager.connectReadOnly()) {
+            T result = task.run(conn);
+            return new Scan<>(result, result instanceof Rows rows ? rows.size : ((Object[]) result).length, System.nanoTime() - start);
+        } catch (SQLException e) {
+            throw new SQLException("Failed to scan " + table + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while loading stats snapshot", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof SQLException sql ? sql : new SQLException("Failed to load stats snapshot", e.getCause());
+        }
+    }
+
+    private String[] championNames(Connection conn) throws SQLException {
+        String[] names = new String[0];
         try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT champion_id, wins, plays FROM champion_stats")) {
+             ResultSet rs = stmt.executeQuery("SELECT id, name FROM champions ORDER BY id DESC")) {
             while (rs.next()) {
-                String name = championNames.get(rs.getInt("champion_id"));
-                if (name != null) {
-                    ChampionStats existingStats = statsMap.get(name);
-                    ChampionStats newStats = new ChampionStats(
-                        rs.getInt("wins"),
-                        rs.getInt("plays"),
-                        existingStats.getRoleCounts(),  
-                        existingStats.getSynergy(),    
-                        existingStats.getCounters()     
-                    );
-                    statsMap.put(name, newStats);
+                int id = rs.getInt(1);
+                if (id < 0) continue;
+                if (id >= names.length) {
+                    names = Arrays.copyOf(names, id + 1);
                 }
+                names[id] = rs.getString(2);
             }
         }
+        return names;
     }
 
-    private void loadRoleStats(Connection conn, Map<String, ChampionStats> statsMap, Map<Integer, String> championNames) throws SQLException {
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT champion_id, role, plays FROM role_stats")) {
-            while (rs.next()) {
-                String name = championNames.get(rs.getInt("champion_id"));
-                if (name != null) {
-                    ChampionStats stats = statsMap.get(name);
-                    stats.getRoleCounts().put(rs.getString("role"), rs.getInt("plays"));
-                }
+    private BinarySnapshot.Builder merge(String[] names, Scan<Rows> championRows, Scan<Rows> roleRows, Scan<Rows> synergyRows, Scan<Rows> counterRows) {
+        BinarySnapshot.Builder builder = new BinarySnapshot.Builder(Arrays.asList(names));
+        int[] index = new int[names.length];
+        for (int id = 0; id < names.length; id++) {
+            index[id] = builder.indexOf(names[id]);
+        }
+
+        Rows champions = championRows.result();
+        for (int row = 0; row < champions.size; row++) {
+            int champion = index(index, champions.get(row, 0));
+            if (champion >= 0) {
+                builder.addGames(champion, champions.get(row, 1), champions.get(row, 2));
+            }
+        }
+
+        Rows roles = roleRows.result();
+        for (int row = 0; row < roles.size; row++) {
+            int champion = index(index, roles.get(row, 0));
+            if (champion >= 0) {
+                builder.addRole(champion, Role.fromLane(roles.label(row)), roles.get(row, 1));
             }
         }
+
+        Rows synergy = synergyRows.result();
+        for (int row = 0; row < synergy.size; row++) {
+            int champion = index(index, synergy.get(row, 0));
+            int ally = index(index, synergy.get(row, 2));
+            if (champion < 0 || ally < 0) continue;
+            builder.addSynergy(champion, Role.fromCode(synergy.get(row, 1)), ally, Role.fromCode(synergy.get(row, 3)),
+                    synergy.get(row, 4), synergy.get(row, 5));
+        }
+
+        Rows counters = counterRows.result();
+        for (int row = 0; row < counters.size; row++) {
+            int champion = index(index, counters.get(row, 0));
+            int enemy = index(index, counters.get(row, 2));
+            if (champion < 0 || enemy < 0) continue;
+            builder.addCounter(champion, Role.fromCode(counters.get(row, 1)), enemy, Role.fromCode(counters.get(row, 3)),
+                    counters.get(row, 4), counters.get(row, 5));
+        }
+        return builder;
     }
 
-    private void loadSynergyStats(Connection conn, Map<String, ChampionStats> statsMap, Map<Integer, String> championNames) throws SQLException {
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT champion_id, ally_id, wins, plays FROM synergy_stats")) {
-            while (rs.next()) {
-                String champ1Name = championNames.get(rs.getInt("champion_id"));
-                String champ2Name = championNames.get(rs.getInt("ally_id"));
-                if (champ1Name != null && champ2Name != null) {
-                    WinPlay wp = new WinPlay(rs.getInt("wins"), rs.getInt("plays"));
-                    statsMap.get(champ1Name).getSynergy().put(champ2Name, wp);
-                    statsMap.get(champ2Name).getSynergy().put(champ1Name, wp);
+    private static int index(int[] index, int id) {
+        return id >= 0 && id < index.length ? index[id] : -1;
+    }
+
+    @FunctionalInterface
+    private interface ScanTask<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    private record Scan<T>(T result, int rows, long nanos) {
+        @Override
+        public String toString() {
+            return rows + " rows/" + nanos / 1_000_000 + " ms";
+        }
+    }
+
+    private static final class Rows {
+        private final int width;
+        private int[] values;
+        private String[] labels;
+        private int size;
+
+        private Rows(int width, boolean labelled) {
+            this.width = width;
+            this.values = new int[width * 1024];
+            this.labels = labelled ? new String[1024] : null;
+        }
+
+        private static Rows read(PreparedStatement stmt, int width, boolean labelled) throws SQLException {
+            Rows rows = new Rows(width, labelled);
+            Map<String, String> interned = labelled ? new HashMap<>() : null;
+            try (stmt; ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.ensureCapacity();
+                    int base = rows.size * width;
+                    for (int column = 0; column < width; column++) {
+                        rows.values[base + column] = rs.getInt(column + 1);
+                    }
+                    if (labelled) {
+                        String label = rs.getString(width + 1);
+                        rows.labels[rows.size] = interned.computeIfAbsent(label, key -> key);
+                    }
+                    rows.size++;
                 }
             }
+            return rows;
         }
-    }
 
-    private void loadCounterStats(Connection conn, Map<String, ChampionStats> statsMap, Map<Integer, String> championNames) throws SQLException {
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT champion_id, enemy_id, wins, plays FROM counter_stats")) {
-            while (rs.next()) {
-                String champName = championNames.get(rs.getInt("champion_id"));
-                String enemyName = championNames.get(rs.getInt("enemy_id"));
-                if (champName != null && enemyName != null) {
-                    WinPlay wp = new WinPlay(rs.getInt("wins"), rs.getInt("plays"));
-                    statsMap.get(champName).getCounters().put(enemyName, wp);
+        private void ensureCapacity() {
+            if ((size + 1) * width > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+                if (labels != null) {
+                    labels = Arrays.copyOf(labels, labels.length * 2);
                 }
             }
         }
+
+        private int get(int row, int column) {
+            return values[row * width + column];
+        }
+
+        private String label(int row) {
+            return labels[row];
+        }
+    }
+
+    private interface StatsQuery {
+        PreparedStatement champions(Connection conn) throws SQLException;
+
+        PreparedStatement roles(Connection conn) throws SQLException;
+
+        PreparedStatement synergy(Connection conn) throws SQLException;
+
+        PreparedStatement counters(Connection conn) throws SQLException;
+    }
+
+    private record RawQuery(int fromPatch, int toPatch, int fromBracket, int toBracket) implements StatsQuery {
+        private static final String FILTER = " WHERE patch BETWEEN ? AND ? AND bracket BETWEEN ? AND ?";
+
+        @Override
+        public PreparedStatement champions(Connection conn) throws SQLException {
+            return prepare(conn, "SELECT champion_id, SUM(wins) AS wins, SUM(plays) AS plays FROM champion_stats" + FILTER + " GROUP BY champion_id");
+        }
+
+        @Override
+        public PreparedStatement roles(Connection conn) throws SQLException {
+            return prepare(conn, "SELECT champion_id, SUM(plays) AS plays, role FROM role_stats" + FILTER + " GROUP BY champion_id, role");
+        }
+
+        @Override
+        public PreparedStatement synergy(Connection conn) throws SQLException {
+            return prepare(conn, "SELECT champion_id, champion_role, ally_id, ally_role, SUM(wins) AS wins, SUM(plays) AS plays FROM synergy_stats" + FILTER +
+                    " GROUP BY champion_id, champion_role, ally_id, ally_role");
+        }
+
+        @Override
+        public PreparedStatement counters(Connection conn) throws SQLException {
+            return prepare(conn, "SELECT champion_id, champion_role, enemy_id, enemy_role, SUM(wins) AS wins, SUM(plays) AS plays FROM counter_stats" + FILTER +
+                    " GROUP BY champion_id, champion_role, enemy_id, enemy_role");
+        }
+
+        private PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+            PreparedStatement stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, fromPatch);
+            stmt.setInt(2, toPatch);
+            stmt.setInt(3, fromBracket);
+            stmt.setInt(4, toBracket);
+            return stmt;
+        }
+    }
+
+    private record RollupQuery(String rollup) implements StatsQuery {
+        @Override
+        public PreparedStatement champions(Connection conn) throws SQLException {
+            return prepare(conn, "SELECT champion_id, wins, plays FROM champion_rollup WHERE rollup = ?");
+        }
+
+        @Override
+        public PreparedStatement roles(Connection conn) throws SQLException {
+            return prepare(conn, "SELECT champion_id, plays, role FROM role_rollup WHERE rollup = ?");
+        }
+
+        @Override
+        public PreparedStatement synergy(Connection conn) throws SQLException {
+            return prepare(conn, "SELECT champion_id, champion_role, ally_id, ally_role, wins, plays FROM synergy_rollup WHERE rollup = ?");
+        }
+
+        @Override
+        public PreparedStatement counters(Connection conn) throws SQLException {
+            return prepare(conn, "SELECT champion_id, champion_role, enemy_id, enemy_role, wins, plays FROM counter_rollup WHERE rollup = ?");
+        }
+
+        private PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+            PreparedStatement stmt = conn.prepareStatement(sql);
+            stmt.setString(1, rollup);
+            return stmt;
+        }
     }
 }
@@ -0,0 +1,90 @@
+package org.example.tools;
+
+import org.example.collector.CollectorRunner;
+import org.example.collector.DatabaseManager;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+public class CollectorBenchmark {
+    public static void main(String[] args) throws Exception {
+        int matches = Integer.getInteger("bench.matches", 2_000);
+        Path workDir = Files.createTempDirectory("mejais-collector-bench");
+        if (System.getProperty("fake.port") == null) {
+            System.setProperty("fake.port", "0");
+        }
+        FakeRiotServer.Config config = FakeRiotServer.Config.fromSystemProperties();
+
+        try (FakeRiotServer server = new FakeRiotServer(config)) {
+            server.start();
+            System.setProperty("RIOT_API_KEY", "bench");
+            System.setProperty("RIOT_API_BASE_URL", server.baseUrl().toString());
+            System.setProperty("mejais.snapshot.path", workDir.resolve("snapshot.db").toString());
+            System.setProperty("MATCH_CACHE_DIR", workDir.resolve("match-cache").toString());
+            System.setProperty("MATCH_LIMIT", String.valueOf(matches));
+            setDefault("RIOT_RATE_PER_SECOND", String.valueOf(config.appPerSecond()));
+            setDefault("RIOT_RATE_PER_TWO_MINUTES", String.valueOf(config.appPerTwoMinutes()));
+            System.out.printf("Benchmarking %d matches against %s (latency %d+%dms, 429 rate %.3f), work dir %s%n",
+                    matches, server.baseUrl(), config.latencyMillis(), config.jitterMillis(), config.throttleRate(), workDir);
+
+            System.setProperty("COLLECT_MODE", "full");
+            Result crawl = measure(server);
+            System.setProperty("COLLECT_MODE", "replay");
+            Result replay = measure(server);
+
+            System.out.println();
+            crawl.print("crawl");
+            replay.print("replay");
+        }
+    }
+
+    private static Result measure(FakeRiotServer server) throws Exception {
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long requestsBefore = server.requests();
+        long throttledBefore = server.throttled();
+        long serverCpuBefore = server.cpuNanos();
+        long serverAllocatedBefore = server.allocatedBytes();
+        long cpuBefore = os.getProcessCpuTime();
+        long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+        long start = System.nanoTime();
+
+        CollectorRunner.main(new String[0]);
+
+        long elapsed = System.nanoTime() - start;
+        long cpu = os.getProcessCpuTime() - cpuBefore - (server.cpuNanos() - serverCpuBefore);
+        long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore - (server.allocatedBytes() - serverAllocatedBefore);
+        return new Result(processedMatches(), elapsed, cpu, allocated,
+                server.requests() - requestsBefore, server.throttled() - throttledBefore);
+    }
+
+    private static int processedMatches() throws Exception {
+        try (Connection connection = DatabaseManager.connect();
+             Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM processed_matches")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private record Result(int matches, long elapsedNanos, long cpuNanos, long allocatedBytes, long requests, long throttled) {
+        private void print(String label) {
+            double seconds = elapsedNanos / 1_000_000_000d;
+            int perMatch = Math.max(1, matches);
+            System.out.printf("%-7s %6d matches in %6.1fs = %8.1f matches/s | CPU %6.1fs (%4.0f%% of wall, %6.2f ms/match) | alloc %7.1f MB (%6.1f KB/match) | %d requests, %d throttled%n",
+                    label, matches, seconds, matches / seconds,
+                    cpuNanos / 1_000_000_000d, cpuNanos / (double) elapsedNanos * 100, cpuNanos / 1_000_000d / perMatch,
+                    allocatedBytes / (1024d * 1024d), allocatedBytes / 1024d / perMatch, requests, throttled);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.tools;
+
+import org.example.model.BracketGroup;
+import org.example.model.Role;
+import org.example.service.DraftScorer;
+import org.example.service.DraftScorer.Metrics;
+import org.example.service.DraftScorer.Pick;
+import org.example.service.db.BinarySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class DraftScorerCheck {
+    private static final Role[] LANES = {Role.TOP, Role.JUNGLE, Role.MID, Role.BOTTOM, Role.SUPPORT, Role.UNKNOWN};
+
+    public static void main(String[] args) {
+        long seed = Long.getLong("check.seed", System.nanoTime());
+        int champions = Integer.getInteger("check.champions", 160);
+        int steps = Integer.getInteger("check.steps", 2_000);
+        Random random = new Random(seed);
+        BinarySnapshot table = randomTable(random, champions);
+
+        DraftScorer scorer = new DraftScorer();
+        Pick[] allies = new Pick[5];
+        Pick[] enemies = new Pick[5];
+        Role targetRole = Role.UNKNOWN;
+        long incrementalNanos = 0;
+        long fullNanos = 0;
+        int mismatches = 0;
+
+        for (int step = 0; step < steps; step++) {
+            Pick[] side = random.nextBoolean() ? allies : enemies;
+            int slot = random.nextInt(side.length);
+            switch (random.nextInt(4)) {
+                case 0 -> side[slot] = null;
+                case 1 -> side[slot] = side[slot] == null ? null : pick(table, side[slot].index(), LANES[random.nextInt(LANES.length)]);
+                case 2 -> targetRole = random.nextInt(4) == 0 ? LANES[random.nextInt(LANES.length)] : targetRole;
+                default -> side[slot] = pick(table, random.nextInt(champions), LANES[random.nextInt(LANES.length)]);
+            }
+            List<Pick> synergy = distinct(allies);
+            List<Pick> counter = distinct(enemies);
+
+            long start = System.nanoTime();
+            scorer.update(table, targetRole, synergy, counter);
+            double[] winRates = new double[champions * 2];
+            for (int champion = 0; champion < champions; champion++) {
+                winRates[champion * 2] = scorer.synergyWinRate(champion);
+                winRates[champion * 2 + 1] = scorer.counterWinRate(champion);
+            }
+            incrementalNanos += System.nanoTime() - start;
+            List<Metrics> incremental = new ArrayList<>(champions * 2);
+            for (int champion = 0; champion < champions; champion++) {
+                incremental.add(scorer.synergy(champion, synergy));
+                incremental.add(scorer.counter(champion, counter));
+            }
+
+            start = System.nanoTime();
+            List<Metrics> full = new ArrayList<>(champions * 2);
+            for (int champion = 0; champion < champions; champion++) {
+                Role role = DraftScorer.laneRole(table, champion, targetRole);
+                full.add(DraftScorer.compute(table, champion, role, synergy, true));
+                full.add(DraftScorer.compute(table, champion, role, counter, false));
+            }
+            fullNanos += System.nanoTime() - start;
+
+            for (int i = 0; i < full.size(); i++) {
+                Metrics expected = full.get(i);
+                Metrics actual = incremental.get(i);
+                if (Double.compare(expected.winRate(), actual.winRate()) != 0
+                        || Double.compare(expected.winRate(), winRates[i]) != 0
+                        || !expected.entries().equals(actual.entries())) {
+                    if (mismatches++ < 10) {
+                        System.err.printf("Step %d, champion %d (%s): expected %s, got %s%n",
+                                step, i / 2, i % 2 == 0 ? "synergy" : "counter", expected, actual);
+                    }
+                }
+            }
+        }
+
+        System.out.printf("Seed %d: %d steps over %d champions, %d mismatch(es). Incremental %d ms, full %d ms.%n",
+                seed, steps, champions, mismatches, incrementalNanos / 1_000_000, fullNanos / 1_000_000);
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static BinarySnapshot randomTable(Random random, int champions) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < champions; i++) {
+            names.add(String.format("Champion%03d", i));
+        }
+        BinarySnapshot.Builder builder = new BinarySnapshot.Builder(names);
+        for (int champion = 0; champion < champions; champion++) {
+            int games = 50 + random.nextInt(500);
+            builder.addGames(champion, random.nextInt(games + 1), games);
+            builder.addRole(champion, LANES[random.nextInt(5)], games);
+            if (random.nextBoolean()) {
+                builder.addRole(champion, LANES[random.nextInt(5)], 1 + random.nextInt(games));
+            }
+        }
+        for (int i = 0; i < champions * 40; i++) {
+            int a = random.nextInt(champions);
+            int b = random.nextInt(champions);
+            if (a == b) continue;
+            int games = 1 + random.nextInt(20);
+            Role roleA = LANES[random.nextInt(5)];
+            Role roleB = LANES[random.nextInt(5)];
+            if (random.nextBoolean()) {
+                builder.addSynergy(a, roleA, b, roleB, random.nextInt(games + 1), games);
+            } else {
+                builder.addCounter(a, roleA, b, roleB, random.nextInt(games + 1), games);
+            }
+        }
+        return builder.build(BracketGroup.ALL, 0, 0L);
+    }
+
+    private static Pick pick(BinarySnapshot table, int champion, Role role) {
+        return new Pick(champion, role, table.name(champion));
+    }
+
+    private static List<Pick> distinct(Pick[] slots) {
+        List<Pick> picks = new ArrayList<>();
+        for (Pick pick : slots) {
+            if (pick != null && picks.stream().noneMatch(p -> p.index() == pick.index())) {
+                picks.add(pick);
+            }
+        }
+        return picks;
+    }
+}
@@ -0,0 +1,336 @@
+package org.example.tools;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+public class FakeRiotServer implements AutoCloseable {
+    private static final String[] POSITIONS = {"TOP", "JUNGLE", "MIDDLE", "BOTTOM", "UTILITY"};
+    private static final int CHAMPION_POOL = 160;
+    private static final String PUUID_PADDING = "-bench-puuid-padding-0123456789abcdef0123456789abcdef0123456789abcdef0123";
+
+    private final Config config;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "fake-riot-server");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final FixedWindow appShort;
+    private final FixedWindow appLong;
+    private final FixedWindow matchDetail;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    public FakeRiotServer(Config config) throws IOException {
+        this.config = config;
+        this.appShort = new FixedWindow(1);
+        this.appLong = new FixedWindow(120);
+        this.matchDetail = new FixedWindow(10);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", config.port()), 128);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    public static void main(String[] args) throws IOException {
+        FakeRiotServer server = new FakeRiotServer(Config.fromSystemProperties());
+        server.start();
+        System.out.println("Fake Riot API listening on " + server.baseUrl() + " (Ctrl+C to stop)");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public URI baseUrl() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long throttled() {
+        return throttled.sum();
+    }
+
+    public long cpuNanos() {
+        return cpuNanos.sum();
+    }
+
+    public long allocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        requests.increment();
+        try (exchange) {
+            if (config.latencyMillis() > 0) {
+                int jitter = config.jitterMillis() > 0 ? ThreadLocalRandom.current().nextInt(config.jitterMillis() + 1) : 0;
+                try {
+                    Thread.sleep(config.latencyMillis() + jitter);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            respond(exchange);
+        } finally {
+            cpuNanos.add(threads.getCurrentThreadCpuTime() - cpuBefore);
+            allocatedBytes.add(threads.getCurrentThreadAllocatedBytes() - allocatedBefore);
+        }
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        Headers headers = exchange.getResponseHeaders();
+        boolean detail = path.startsWith("/lol/match/v5/matches/") && !path.startsWith("/lol/match/v5/matches/by-puuid/");
+        int shortCount = appShort.increment();
+        int longCount = appLong.increment();
+        headers.set("X-App-Rate-Limit", config.appPerSecond() + ":1," + config.appPerTwoMinutes() + ":120");
+        headers.set("X-App-Rate-Limit-Count", shortCount + ":1," + longCount + ":120");
+        if (detail) {
+            int methodCount = matchDetail.increment();
+            headers.set("X-Method-Rate-Limit", config.matchDetailPerTenSeconds() + ":10");
+            headers.set("X-Method-Rate-Limit-Count", methodCount + ":10");
+            if (methodCount > config.matchDetailPerTenSeconds()) {
+                throttle(exchange, "method", matchDetail.secondsRemaining());
+                return;
+            }
+        }
+        if (shortCount > config.appPerSecond() || longCount > config.appPerTwoMinutes()) {
+            long retry = shortCount > config.appPerSecond() ? appShort.secondsRemaining() : appLong.secondsRemaining();
+            throttle(exchange, "application", retry);
+            return;
+        }
+        if (config.throttleRate() > 0 && ThreadLocalRandom.current().nextDouble() < config.throttleRate()) {
+            throttle(exchange, "service", config.retryAfterSeconds());
+            return;
+        }
+
+        String body;
+        if (path.startsWith("/lol/league-exp/v4/entries/")) {
+            body = leagueEntries(path, exchange.getRequestURI().getQuery());
+        } else if (path.startsWith("/lol/match/v5/matches/by-puuid/")) {
+            body = matchIds(path, exchange.getRequestURI().getQuery());
+        } else if (detail) {
+            body = match(path.substring("/lol/match/v5/matches/".length()));
+        } else {
+            body = null;
+        }
+        if (body == null) {
+            send(exchange, 404, "{\"status\":{\"status_code\":404,\"message\":\"Data not found\"}}");
+        } else {
+            send(exchange, 200, body);
+        }
+    }
+
+    private void throttle(HttpExchange exchange, String limitType, long retryAfterSeconds) throws IOException {
+        throttled.increment();
+        exchange.getResponseHeaders().set("Retry-After", String.valueOf(Math.max(1, retryAfterSeconds)));
+        exchange.getResponseHeaders().set("X-Rate-Limit-Type", limitType);
+        send(exchange, 429, "{\"status\":{\"status_code\":429,\"message\":\"Rate limit exceeded\"}}");
+    }
+
+    private void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String leagueEntries(String path, String query) {
+        int page = Math.max(1, queryInt(query, "page", 1));
+        int tier = switch (path.split("/")[6]) {
+            case "CHALLENGER" -> 0;
+            case "GRANDMASTER" -> 1;
+            case "MASTER" -> 2;
+            case "DIAMOND" -> 3;
+            default -> 4;
+        };
+        int first = (tier * 5 + page - 1) * 205;
+        StringBuilder json = new StringBuilder(205 * 160).append('[');
+        for (int i = 0; i < 205 && first + i < config.players(); i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"leagueId\":\"bench\",\"queueType\":\"RANKED_SOLO_5x5\",\"tier\":\"").append(path.split("/")[6])
+                .append("\",\"rank\":\"I\",\"puuid\":\"").append(puuid(first + i))
+                .append("\",\"leaguePoints\":").append(1000 - i).append(",\"wins\":120,\"losses\":100}");
+        }
+        return json.append(']').toString();
+    }
+
+    private String matchIds(String path, String query) {
+        String puuid = path.substring("/lol/match/v5/matches/by-puuid/".length(), path.length() - "/ids".length());
+        int player = playerIndex(puuid);
+        if (player < 0) {
+            return null;
+        }
+        int count = Math.min(100, Math.max(1, queryInt(query, "count", 20)));
+        StringBuilder json = new StringBuilder(count * 20).append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) json.append(',');
+            json.append("\"BENCH_").append(Math.floorMod(mix(player * 131L + i), config.matches())).append('"');
+        }
+        return json.append(']').toString();
+    }
+
+    private String match(String matchId) {
+        if (!matchId.startsWith("BENCH_")) {
+            return null;
+        }
+        long match;
+        try {
+            match = Long.parseLong(matchId.substring("BENCH_".length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        long seed = mix(match);
+        boolean blueWins = (seed & 1) == 0;
+        int championOffset = (int) Math.floorMod(seed, CHAMPION_POOL);
+        StringBuilder json = new StringBuilder(48 * 1024);
+        json.append("{\"metadata\":{\"matchId\":\"").append(matchId).append("\",\"participants\":[");
+        for (int slot = 0; slot < 10; slot++) {
+            json.append(slot == 0 ? "" : ",").append('"').append(puuid(participant(match, slot))).append('"');
+        }
+        json.append("]},\"info\":{\"gameVersion\":\"14.20.123.4567\",\"gameDuration\":1834,\"queueId\":420,\"participants\":[");
+        for (int slot = 0; slot < 10; slot++) {
+            boolean blue = slot < 5;
+            json.append(slot == 0 ? "" : ",").append('{');
+            json.append("\"puuid\":\"").append(puuid(participant(match, slot))).append("\",");
+            json.append("\"championName\":\"BenchChampion").append((championOffset + slot * 17) % CHAMPION_POOL).append("\",");
+            json.append("\"teamId\":").append(blue ? 100 : 200).append(',');
+            json.append("\"teamPosition\":\"").append(POSITIONS[slot % 5]).append("\",");
+            json.append("\"win\":").append(blue == blueWins).append(',');
+            json.append("\"challenges\":{");
+            for (int c = 0; c < 120; c++) {
+                json.append(c == 0 ? "" : ",").append("\"challenge").append(c).append("\":").append(c * 1.5);
+            }
+            json.append('}');
+            for (int stat = 0; stat < 80; stat++) {
+                json.append(",\"stat").append(stat).append("\":").append(stat * 17 + slot);
+            }
+            json.append('}');
+        }
+        json.append("],\"teams\":[{\"teamId\":100,\"win\":").append(blueWins)
+            .append("},{\"teamId\":200,\"win\":").append(!blueWins).append("}]}}");
+        return json.toString();
+    }
+
+    private int participant(long match, int slot) {
+        return (int) Math.floorMod(mix(match * 10 + slot), config.players());
+    }
+
+    private static String puuid(int player) {
+        return String.format("%06d", player) + PUUID_PADDING;
+    }
+
+    private int playerIndex(String puuid) {
+        if (puuid.length() < 6) return -1;
+        try {
+            int player = Integer.parseInt(puuid.substring(0, 6));
+            return player < config.players() ? player : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int queryInt(String query, String key, int fallback) {
+        if (query == null) return fallback;
+        for (String part : query.split("&")) {
+            if (part.startsWith(key + "=")) {
+                try {
+                    return Integer.parseInt(part.substring(key.length() + 1));
+                } catch (NumberFormatException e) {
+                    return fallback;
+                }
+            }
+        }
+        return fallback;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value & Long.MAX_VALUE;
+    }
+
+    public record Config(int port, int players, int matches, int latencyMillis, int jitterMillis,
+                         double throttleRate, int retryAfterSeconds, int appPerSecond,
+                         int appPerTwoMinutes, int matchDetailPerTenSeconds) {
+        public static Config fromSystemProperties() {
+            return new Config(
+                    Integer.getInteger("fake.port", 8089),
+                    Integer.getInteger("fake.players", 20_000),
+                    Integer.getInteger("fake.matches", 200_000),
+                    Integer.getInteger("fake.latencyMillis", 40),
+                    Integer.getInteger("fake.jitterMillis", 20),
+                    Double.parseDouble(System.getProperty("fake.throttleRate", "0.01")),
+                    Integer.getInteger("fake.retryAfterSeconds", 1),
+                    Integer.getInteger("fake.appPerSecond", 500),
+                    Integer.getInteger("fake.appPerTwoMinutes", 30_000),
+                    Integer.getInteger("fake.matchDetailPerTenSeconds", 2_000));
+        }
+    }
+
+    private static final class FixedWindow {
+        private final long windowMillis;
+        private long windowStart = System.currentTimeMillis();
+        private int count;
+
+        private FixedWindow(int windowSeconds) {
+            this.windowMillis = windowSeconds * 1000L;
+        }
+
+        private synchronized int increment() {
+            long now = System.currentTimeMillis();
+            if (now - windowStart >= windowMillis) {
+                windowStart = now;
+                count = 0;
+            }
+            return ++count;
+        }
+
+        private synchronized long secondsRemaining() {
+            long remaining = windowStart + windowMillis - System.currentTimeMillis();
+            return Math.max(1, (remaining + 999) / 1000);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.tools;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.collector.MatchParser;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class MatchParseBenchmark {
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final String[] CHAMPIONS = {"Ahri", "Lux", "Jinx", "Thresh", "LeeSin", "Darius", "Orianna", "Kaisa", "Nautilus", "Vi"};
+    private static final String[] POSITIONS = {"TOP", "JUNGLE", "MIDDLE", "BOTTOM", "UTILITY"};
+
+    public static void main(String[] args) throws IOException {
+        byte[] body = args.length > 0 ? Files.readAllBytes(Paths.get(args[0])) : syntheticMatch();
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        System.out.printf("Payload: %d bytes, %d iterations%n", body.length, iterations);
+
+        ObjectMapper mapper = new ObjectMapper();
+        MatchParser parser = new MatchParser();
+        run("tree", iterations, () -> treeParse(mapper, body));
+        run("streaming", iterations, () -> parser.parse("BENCH_1", body).participants().size());
+    }
+
+    private static void run(String label, int iterations, ParseTask task) throws IOException {
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += task.parse();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += task.parse();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        System.out.printf("%-10s %8.1f us/match %10d bytes/match (checksum %d)%n",
+                label, elapsed / 1_000d / iterations, allocated / iterations, sink);
+    }
+
+    private static int treeParse(ObjectMapper mapper, byte[] body) throws IOException {
+        JsonNode participants = mapper.readTree(body).path("info").path("participants");
+        int count = 0;
+        for (JsonNode participant : participants) {
+            participant.path("championName").asText("");
+            participant.path("win").asBoolean(false);
+            participant.path("teamId").asInt();
+            participant.path("teamPosition").asText("");
+            participant.path("puuid").asText("");
+            count++;
+        }
+        return count;
+    }
+
+    private static byte[] syntheticMatch() {
+        StringBuilder json = new StringBuilder(64 * 1024);
+        json.append("{\"metadata\":{\"matchId\":\"BENCH_1\",\"participants\":[");
+        for (int i = 0; i < 10; i++) {
+            json.append(i == 0 ? "" : ",").append('"').append(puuid(i)).append('"');
+        }
+        json.append("]},\"info\":{\"gameVersion\":\"14.20.123.4567\",\"gameDuration\":1834,\"participants\":[");
+        for (int i = 0; i < 10; i++) {
+            json.append(i == 0 ? "" : ",").append('{');
+            json.append("\"puuid\":\"").append(puuid(i)).append("\",");
+            json.append("\"championName\":\"").append(CHAMPIONS[i]).append("\",");
+            json.append("\"teamId\":").append(i < 5 ? 100 : 200).append(',');
+            json.append("\"teamPosition\":\"").append(POSITIONS[i % 5]).append("\",");
+            json.append("\"role\":\"SOLO\",\"lane\":\"TOP\",");
+            json.append("\"win\":").append(i < 5).append(',');
+            json.append("\"challenges\":{");
+            for (int c = 0; c < 120; c++) {
+                json.append(c == 0 ? "" : ",").append("\"challenge").append(c).append("\":").append(c * 1.5);
+            }
+            json.append("},\"perks\":{\"statPerks\":{\"defense\":5002,\"flex\":5008,\"offense\":5005},\"styles\":[");
+            for (int s = 0; s < 2; s++) {
+                json.append(s == 0 ? "" : ",").append("{\"style\":8100,\"selections\":[");
+                for (int p = 0; p < 4; p++) {
+                    json.append(p == 0 ? "" : ",").append("{\"perk\":8112,\"var1\":1,\"var2\":2,\"var3\":3}");
+                }
+                json.append("]}");
+            }
+            json.append("]}");
+            for (int item = 0; item < 7; item++) {
+                json.append(",\"item").append(item).append("\":").append(3000 + item);
+            }
+            for (int stat = 0; stat < 80; stat++) {
+                json.append(",\"stat").append(stat).append("\":").append(stat * 17);
+            }
+            json.append('}');
+        }
+        json.append("],\"teams\":[{\"teamId\":100,\"win\":true},{\"teamId\":200,\"win\":false}]}}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String puuid(int index) {
+        return ("bench-puuid-" + index + "-").repeat(6);
+    }
+
+    @FunctionalInterface
+    private interface ParseTask {
+        int parse() throws IOException;
+    }
+}
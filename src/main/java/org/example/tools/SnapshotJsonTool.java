@@ -0,0 +1,25 @@
+package org.example.tools;
+
+import org.example.collector.DatabaseManager;
+import org.example.collector.DbToJsonExporter;
+import org.example.collector.JsonToDbMigrator;
+
+import java.io.File;
+import java.sql.Connection;
+
+public class SnapshotJsonTool {
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2 || !("import".equals(args[0]) || "export".equals(args[0]))) {
+            System.err.println("Usage: SnapshotJsonTool import|export <snapshot.json>");
+            System.exit(2);
+        }
+        File file = new File(args[1]);
+        try (Connection connection = DatabaseManager.connect()) {
+            if ("import".equals(args[0])) {
+                JsonToDbMigrator.migrate(file, connection);
+            } else {
+                DbToJsonExporter.export(connection, file);
+            }
+        }
+    }
+}
@@ -104,6 +104,10 @@ public final class AppPaths {
     }
 
     public static Path snapshotPath() {
+        String configured = System.getProperty("mejais.snapshot.path");
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured).toAbsolutePath().normalize();
+        }
         return locateDataFile("snapshot.db");
     }
 }
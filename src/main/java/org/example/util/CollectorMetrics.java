@@ -0,0 +1,182 @@
+package org.example.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class CollectorMetrics {
+    private static final double[] LATENCY_BUCKETS = {0.0001, 0.00025, 0.0005, 0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicLong> GAUGES = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService reporter;
+    private static Path reportFile;
+
+    private CollectorMetrics() {
+    }
+
+    public static void observeNanos(String name, String labels, long nanos) {
+        HISTOGRAMS.computeIfAbsent(seriesKey(name, labels), key -> new Histogram()).observe(nanos / 1_000_000_000d);
+    }
+
+    public static void increment(String name, String labels) {
+        add(name, labels, 1);
+    }
+
+    public static void add(String name, String labels, long delta) {
+        COUNTERS.computeIfAbsent(seriesKey(name, labels), key -> new LongAdder()).add(delta);
+    }
+
+    public static void setGauge(String name, String labels, long value) {
+        GAUGES.computeIfAbsent(seriesKey(name, labels), key -> new AtomicLong()).set(value);
+    }
+
+    public static String label(String key, String value) {
+        return key + "=\"" + (value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"")) + "\"";
+    }
+
+    public static synchronized void startReporting(Path file, Duration interval) {
+        if (reporter != null) return;
+        reportFile = file;
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "collector-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = Math.max(1_000L, interval.toMillis());
+        reporter.scheduleAtFixedRate(CollectorMetrics::writeQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        System.out.println("Writing collector metrics to " + file + " every " + millis / 1000 + "s.");
+    }
+
+    public static synchronized void stopReporting() {
+        if (reporter == null) return;
+        reporter.shutdownNow();
+        reporter = null;
+        writeQuietly();
+    }
+
+    public static Path defaultReportFile() {
+        return AppPaths.locateDataDir().resolve("logs").resolve("collector-metrics.prom");
+    }
+
+    public static String render() {
+        StringBuilder out = new StringBuilder(4096);
+        out.append("# collected_at_ms ").append(System.currentTimeMillis()).append('\n');
+        renderCounters(out);
+        renderGauges(out);
+        renderHistograms(out);
+        return out.toString();
+    }
+
+    private static void renderCounters(StringBuilder out) {
+        String lastName = null;
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(COUNTERS).entrySet()) {
+            lastName = typeLine(out, entry.getKey(), "counter", lastName);
+            out.append(entry.getKey()).append(' ').append(entry.getValue().sum()).append('\n');
+        }
+    }
+
+    private static void renderGauges(StringBuilder out) {
+        String lastName = null;
+        for (Map.Entry<String, AtomicLong> entry : new TreeMap<>(GAUGES).entrySet()) {
+            lastName = typeLine(out, entry.getKey(), "gauge", lastName);
+            out.append(entry.getKey()).append(' ').append(entry.getValue().get()).append('\n');
+        }
+    }
+
+    private static void renderHistograms(StringBuilder out) {
+        String lastName = null;
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(HISTOGRAMS).entrySet()) {
+            lastName = typeLine(out, entry.getKey(), "histogram", lastName);
+            String name = metricName(entry.getKey());
+            String labels = metricLabels(entry.getKey());
+            String prefix = labels.isEmpty() ? "" : labels + ",";
+            Histogram histogram = entry.getValue();
+            long cumulative = 0;
+            for (int i = 0; i < LATENCY_BUCKETS.length; i++) {
+                cumulative += histogram.buckets[i].sum();
+                out.append(name).append("_bucket{").append(prefix).append("le=\"").append(LATENCY_BUCKETS[i]).append("\"} ")
+                   .append(cumulative).append('\n');
+            }
+            cumulative += histogram.buckets[LATENCY_BUCKETS.length].sum();
+            out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+            String suffix = labels.isEmpty() ? "" : "{" + labels + "}";
+            out.append(name).append("_sum").append(suffix).append(' ')
+               .append(String.format(Locale.ROOT, "%.6f", histogram.sumMicros.sum() / 1_000_000d)).append('\n');
+            out.append(name).append("_count").append(suffix).append(' ').append(cumulative).append('\n');
+        }
+    }
+
+    private static String typeLine(StringBuilder out, String key, String type, String lastName) {
+        String name = metricName(key);
+        if (!name.equals(lastName)) {
+            out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        }
+        return name;
+    }
+
+    private static void writeQuietly() {
+        Path file = reportFile;
+        if (file == null) return;
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), "collector-metrics", ".tmp");
+            try {
+                Files.writeString(temp, render(), StandardCharsets.UTF_8);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write collector metrics: " + e.getMessage());
+        }
+    }
+
+    private static String seriesKey(String name, String labels) {
+        return labels == null || labels.isEmpty() ? name : name + "{" + labels + "}";
+    }
+
+    private static String metricName(String key) {
+        int brace = key.indexOf('{');
+        return brace < 0 ? key : key.substring(0, brace);
+    }
+
+    private static String metricLabels(String key) {
+        int brace = key.indexOf('{');
+        return brace < 0 ? "" : key.substring(brace + 1, key.length() - 1);
+    }
+
+    private static final class Histogram {
+        private final LongAdder[] buckets = new LongAdder[LATENCY_BUCKETS.length + 1];
+        private final LongAdder sumMicros = new LongAdder();
+
+        private Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void observe(double seconds) {
+            int index = 0;
+            while (index < LATENCY_BUCKETS.length && seconds > LATENCY_BUCKETS[index]) {
+                index++;
+            }
+            buckets[index].increment();
+            sumMicros.add((long) (seconds * 1_000_000d));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.util;
+
+public final class LongHashSet {
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean containsEmpty;
+
+    public LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected * 2, 16) - 1) << 1;
+        this.keys = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            if (containsEmpty) return false;
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) return false;
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == EMPTY) return containsEmpty;
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) return true;
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xffffffffL);
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9e3779b97f4a7c15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] old = keys;
+        keys = new long[old.length * 2];
+        mask = keys.length - 1;
+        for (long key : old) {
+            if (key == EMPTY) continue;
+            int slot = slot(key);
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+        }
+    }
+}
@@ -1,24 +1,50 @@
 package org.example.util;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
 public class RiotApiClient {
+    private static final int MAX_SERVER_ERROR_RETRIES = 2;
+    private static final int MAX_RATE_LIMIT_RETRIES = 5;
+    // Bodies are inflated while they stream in, which blocks; virtual threads keep that off the client's executor.
+    private static final Executor BODY_READERS = Executors.newVirtualThreadPerTaskExecutor();
+
     private final HttpClient httpClient;
-    private final String apiKey;
+    private final HttpRequest.Builder requestTemplate;
     private final RiotRateLimiter rateLimiter;
+    private final URI baseUrl;
 
     public RiotApiClient(String apiKey, RiotRateLimiter rateLimiter) {
-        this.apiKey = apiKey;
+        this(apiKey, rateLimiter, null);
+    }
+
+    public RiotApiClient(String apiKey, RiotRateLimiter rateLimiter, URI baseUrl) {
         this.rateLimiter = rateLimiter;
+        this.baseUrl = baseUrl;
         this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
                 .connectTimeout(Duration.ofSeconds(10))
                 .build();
+        this.requestTemplate = HttpRequest.newBuilder()
+                .header("X-Riot-Token", apiKey)
+                .header("Accept-Encoding", "gzip")
+                .timeout(Duration.ofSeconds(30))
+                .GET();
     }
 
     public String get(String url) throws IOException, InterruptedException {
@@ -26,40 +52,146 @@ public class RiotApiClient {
     }
 
     public String get(URI uri) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(uri)
-                .header("X-Riot-Token", apiKey)
-                .GET()
-                .build();
-        return execute(request);
+        return new String(await(getBytesAsync(uri)), StandardCharsets.UTF_8);
     }
 
-    private String execute(HttpRequest request) throws IOException, InterruptedException {
-        int attempts = 0;
-        while (true) {
-            attempts++;
-            if (rateLimiter != null) {
-                rateLimiter.acquire();
+    public byte[] getBytes(String url) throws IOException, InterruptedException {
+        return await(getBytesAsync(URI.create(url)));
+    }
+
+    public CompletableFuture<byte[]> getBytesAsync(URI uri) {
+        HttpRequest request;
+        synchronized (requestTemplate) {
+            request = requestTemplate.copy().uri(redirect(uri)).build();
+        }
+        return executeAsync(request, uri, 0, 0);
+    }
+
+    private URI redirect(URI uri) {
+        if (baseUrl == null) {
+            return uri;
+        }
+        String query = uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery();
+        return baseUrl.resolve(uri.getRawPath() + query);
+    }
+
+    private CompletableFuture<byte[]> executeAsync(HttpRequest request, URI uri, int serverErrors, int rateLimits) {
+        if (rateLimiter != null) {
+            long waitNanos = rateLimiter.tryAcquire(uri);
+            if (waitNanos > 0) {
+                return retryAfter(waitNanos, true, request, uri, serverErrors, rateLimits);
             }
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            int status = response.statusCode();
-            if (status == 200) {
-                return response.body();
+        }
+        long sentAt = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .whenComplete((response, error) -> recordResponse(uri, response, error, sentAt))
+                .thenComposeAsync(response -> handleResponse(request, uri, response, serverErrors, rateLimits), BODY_READERS);
+    }
+
+    private void recordResponse(URI uri, HttpResponse<InputStream> response, Throwable error, long sentAt) {
+        String endpoint = endpointLabel(uri);
+        CollectorMetrics.observeNanos("collector_request_seconds", endpoint, System.nanoTime() - sentAt);
+        if (error != null) {
+            CollectorMetrics.increment("collector_request_errors_total", endpoint);
+            return;
+        }
+        int status = response.statusCode();
+        String statusClass = status == 429 ? "429" : (status / 100) + "xx";
+        CollectorMetrics.increment("collector_responses_total", endpoint + "," + CollectorMetrics.label("status", statusClass));
+    }
+
+    private String endpointLabel(URI uri) {
+        return CollectorMetrics.label("endpoint", RiotRateLimiter.methodKey(uri));
+    }
+
+    private CompletableFuture<byte[]> handleResponse(HttpRequest request, URI uri, HttpResponse<InputStream> response,
+                                                     int serverErrors, int rateLimits) {
+        if (rateLimiter != null) {
+            rateLimiter.update(uri, response.headers());
+        }
+        int status = response.statusCode();
+        if (status == 200) {
+            try {
+                return CompletableFuture.completedFuture(decode(response));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
             }
-            if (status == 429) {
-                long retryMillis = parseRetryAfterMillis(response);
-                Thread.sleep(Math.max(retryMillis, 1000L));
-                continue;
+        }
+        if (status == 429 && rateLimits < MAX_RATE_LIMIT_RETRIES) {
+            discard(response);
+            CollectorMetrics.increment("collector_retries_total", endpointLabel(uri) + "," + CollectorMetrics.label("reason", "429"));
+            long retryMillis = Math.max(parseRetryAfterMillis(response), 1000L);
+            if (rateLimiter != null) {
+                String limitType = response.headers().firstValue("X-Rate-Limit-Type").orElse("");
+                rateLimiter.penalize(uri, retryMillis, limitType);
+                return executeAsync(request, uri, serverErrors, rateLimits + 1);
             }
-            if (status >= 500 && attempts < 3) {
-                Thread.sleep(500L * attempts);
-                continue;
+            return retryAfter(TimeUnit.MILLISECONDS.toNanos(retryMillis), true, request, uri, serverErrors, rateLimits + 1);
+        }
+        if (status >= 500 && serverErrors < MAX_SERVER_ERROR_RETRIES) {
+            discard(response);
+            CollectorMetrics.increment("collector_retries_total", endpointLabel(uri) + "," + CollectorMetrics.label("reason", "5xx"));
+            return retryAfter(TimeUnit.MILLISECONDS.toNanos(500L * (serverErrors + 1)), false, request, uri, serverErrors + 1, rateLimits);
+        }
+        String body;
+        try {
+            body = new String(decode(response), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            body = "<undecodable>";
+        }
+        return CompletableFuture.failedFuture(new IOException("Riot API " + uri + " returned " + status + " body=" + truncate(body, 400)));
+    }
+
+    // Rate-limit waits are measured from scheduling to the moment the request is tried again, so the metric reports
+    // the delay actually served rather than the limiter's prediction.
+    private CompletableFuture<byte[]> retryAfter(long delayNanos, boolean rateLimitWait, HttpRequest request, URI uri,
+                                                 int serverErrors, int rateLimits) {
+        long scheduledAt = System.nanoTime();
+        return CompletableFuture.supplyAsync(() -> request, CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS))
+                .thenCompose(ignored -> {
+                    if (rateLimitWait) {
+                        CollectorMetrics.observeNanos("collector_rate_limit_wait_seconds", endpointLabel(uri),
+                                System.nanoTime() - scheduledAt);
+                    }
+                    return executeAsync(request, uri, serverErrors, rateLimits);
+                });
+    }
+
+    private byte[] decode(HttpResponse<InputStream> response) throws IOException {
+        boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.trim().equalsIgnoreCase("gzip"))
+                .orElse(false);
+        try (InputStream in = gzip ? new GZIPInputStream(response.body(), 16 * 1024) : response.body()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private void discard(HttpResponse<InputStream> response) {
+        try {
+            response.body().close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private byte[] await(CompletableFuture<byte[]> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException ie) {
+            future.cancel(true);
+            throw ie;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
             }
-            throw new IOException("Riot API " + request.uri() + " returned " + status + " body=" + truncate(response.body(), 400));
+            if (cause instanceof IOException io) throw io;
+            if (cause instanceof UncheckedIOException unchecked) throw unchecked.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            throw new IOException(cause);
         }
     }
 
-    private long parseRetryAfterMillis(HttpResponse<String> response) {
+    private long parseRetryAfterMillis(HttpResponse<?> response) {
         Optional<String> retry = response.headers().firstValue("Retry-After");
         if (retry.isEmpty()) {
             return 0L;
@@ -1,61 +1,239 @@
 package org.example.util;
 
+import java.net.URI;
+import java.net.http.HttpHeaders;
 import java.time.Duration;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class RiotRateLimiter {
-    private final int shortLimit;
-    private final long shortWindowNanos;
-    private final int longLimit;
-    private final long longWindowNanos;
-    private final Deque<Long> shortWindow = new ArrayDeque<>();
-    private final Deque<Long> longWindow = new ArrayDeque<>();
+    private static final long MIN_SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final List<Limit> defaultAppLimits;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
 
     public RiotRateLimiter(int shortLimit, Duration shortWindow, int longLimit, Duration longWindow) {
-        this.shortLimit = shortLimit;
-        this.shortWindowNanos = shortWindow == null ? 0 : shortWindow.toNanos();
-        this.longLimit = longLimit;
-        this.longWindowNanos = longWindow == null ? 0 : longWindow.toNanos();
+        List<Limit> limits = new ArrayList<>();
+        if (shortLimit > 0 && shortWindow != null && !shortWindow.isZero()) {
+            limits.add(new Limit(shortLimit, shortWindow.toNanos()));
+        }
+        if (longLimit > 0 && longWindow != null && !longWindow.isZero()) {
+            limits.add(new Limit(longLimit, longWindow.toNanos()));
+        }
+        this.defaultAppLimits = List.copyOf(limits);
     }
 
-    public void acquire() throws InterruptedException {
+    public void acquire(URI uri) throws InterruptedException {
         while (true) {
-            long sleepMillis;
-            synchronized (this) {
-                long now = System.nanoTime();
-                prune(shortWindow, now, shortWindowNanos);
-                prune(longWindow, now, longWindowNanos);
-
-                boolean shortOk = shortLimit <= 0 || shortWindow.size() < shortLimit;
-                boolean longOk = longLimit <= 0 || longWindow.size() < longLimit;
-                if (shortOk && longOk) {
-                    shortWindow.addLast(now);
-                    longWindow.addLast(now);
-                    return;
+            long waitNanos = tryAcquire(uri);
+            if (waitNanos <= 0) {
+                return;
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, MIN_SLEEP_NANOS));
+        }
+    }
+
+    public long tryAcquire(URI uri) {
+        Bucket method = methodBucket(uri);
+        Bucket app = appBucket(uri);
+        method.lock.lock();
+        app.lock.lock();
+        try {
+            long now = System.nanoTime();
+            long waitNanos = Math.max(method.waitNanos(now), app.waitNanos(now));
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            method.record(now);
+            app.record(now);
+            return 0L;
+        } finally {
+            app.lock.unlock();
+            method.lock.unlock();
+        }
+    }
+
+    public void update(URI uri, HttpHeaders headers) {
+        syncBucket(appBucket(uri), headers.firstValue("X-App-Rate-Limit"), headers.firstValue("X-App-Rate-Limit-Count"));
+        syncBucket(methodBucket(uri), headers.firstValue("X-Method-Rate-Limit"), headers.firstValue("X-Method-Rate-Limit-Count"));
+    }
+
+    public void penalize(URI uri, long retryAfterMillis, String limitType) {
+        Bucket bucket = "application".equalsIgnoreCase(limitType) ? appBucket(uri) : methodBucket(uri);
+        bucket.lock.lock();
+        try {
+            long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryAfterMillis);
+            bucket.blockedUntil = Math.max(bucket.blockedUntil, until);
+        } finally {
+            bucket.lock.unlock();
+        }
+    }
+
+    static String methodKey(URI uri) {
+        String path = uri.getPath() == null ? "" : uri.getPath();
+        if (path.startsWith("/lol/league-exp/")) return "league-exp";
+        if (path.startsWith("/lol/match/v5/matches/by-puuid/")) return "match-ids";
+        if (path.startsWith("/lol/match/v5/matches/")) return "match-detail";
+        String[] segments = path.split("/");
+        return segments.length > 3 ? String.join("/", segments[1], segments[2], segments[3]) : path;
+    }
+
+    private Bucket appBucket(URI uri) {
+        return buckets.computeIfAbsent(uri.getHost(), key -> new Bucket(defaultAppLimits));
+    }
+
+    private Bucket methodBucket(URI uri) {
+        return buckets.computeIfAbsent(uri.getHost() + "#" + methodKey(uri), key -> new Bucket(List.of()));
+    }
+
+    private void syncBucket(Bucket bucket, Optional<String> limitHeader, Optional<String> countHeader) {
+        if (limitHeader.isEmpty()) return;
+        List<Limit> limits = parseLimits(limitHeader.get());
+        if (limits.isEmpty()) return;
+        List<Limit> counts = countHeader.map(RiotRateLimiter::parseLimits).orElse(List.of());
+        bucket.lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (!bucket.hasLimits(limits)) {
+                bucket.reconfigure(limits, now);
+            }
+            for (Limit count : counts) {
+                bucket.syncCount(count.windowNanos(), count.permits(), now);
+            }
+        } finally {
+            bucket.lock.unlock();
+        }
+    }
+
+    private static List<Limit> parseLimits(String header) {
+        List<Limit> limits = new ArrayList<>();
+        for (String part : header.split(",")) {
+            int colon = part.indexOf(':');
+            if (colon <= 0) continue;
+            try {
+                int permits = Integer.parseInt(part.substring(0, colon).trim());
+                long seconds = Long.parseLong(part.substring(colon + 1).trim());
+                if (permits > 0 && seconds > 0) {
+                    limits.add(new Limit(permits, TimeUnit.SECONDS.toNanos(seconds)));
                 }
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return limits;
+    }
+
+    private record Limit(int permits, long windowNanos) { }
 
-                long waitNanos = 0;
-                if (!shortOk && !shortWindow.isEmpty()) {
-                    waitNanos = Math.max(waitNanos, shortWindowNanos - (now - shortWindow.peekFirst()));
+    private static final class Bucket {
+        private final ReentrantLock lock = new ReentrantLock();
+        private List<Window> windows;
+        private long blockedUntil;
+
+        private Bucket(List<Limit> limits) {
+            long now = System.nanoTime();
+            this.windows = createWindows(limits, now);
+            this.blockedUntil = now;
+        }
+
+        private long waitNanos(long now) {
+            long wait = blockedUntil - now;
+            for (Window window : windows) {
+                wait = Math.max(wait, window.waitNanos(now));
+            }
+            return wait;
+        }
+
+        private void record(long now) {
+            for (Window window : windows) {
+                window.record(now);
+            }
+        }
+
+        private boolean hasLimits(List<Limit> limits) {
+            if (limits.size() != windows.size()) return false;
+            for (int i = 0; i < limits.size(); i++) {
+                Window window = windows.get(i);
+                if (window.stamps.length != limits.get(i).permits() || window.windowNanos != limits.get(i).windowNanos()) {
+                    return false;
                 }
-                if (!longOk && !longWindow.isEmpty()) {
-                    waitNanos = Math.max(waitNanos, longWindowNanos - (now - longWindow.peekFirst()));
+            }
+            return true;
+        }
+
+        private void reconfigure(List<Limit> limits, long now) {
+            List<Window> updated = createWindows(limits, now);
+            for (Window window : updated) {
+                for (Window previous : windows) {
+                    if (previous.windowNanos == window.windowNanos) {
+                        window.copyRecent(previous, now);
+                    }
+                }
+            }
+            windows = updated;
+        }
+
+        private void syncCount(long windowNanos, int serverCount, long now) {
+            for (Window window : windows) {
+                if (window.windowNanos == windowNanos) {
+                    int missing = Math.min(serverCount, window.stamps.length) - window.countWithin(now);
+                    for (int i = 0; i < missing; i++) {
+                        window.record(now);
+                    }
                 }
-                sleepMillis = Math.max(1L, (waitNanos + 999_999L) / 1_000_000L);
             }
-            Thread.sleep(sleepMillis);
+        }
+
+        private static List<Window> createWindows(List<Limit> limits, long now) {
+            List<Window> created = new ArrayList<>(limits.size());
+            for (Limit limit : limits) {
+                created.add(new Window(limit.permits(), limit.windowNanos(), now));
+            }
+            return created;
         }
     }
 
-    private void prune(Deque<Long> queue, long now, long windowNanos) {
-        if (windowNanos <= 0) {
-            queue.clear();
-            return;
+    private static final class Window {
+        private final long windowNanos;
+        private final long[] stamps;
+        private int head;
+
+        private Window(int permits, long windowNanos, long now) {
+            this.windowNanos = windowNanos;
+            this.stamps = new long[permits];
+            Arrays.fill(stamps, now - windowNanos);
+        }
+
+        private long waitNanos(long now) {
+            return stamps[head] + windowNanos - now;
         }
-        long threshold = now - windowNanos;
-        while (!queue.isEmpty() && queue.peekFirst() <= threshold) {
-            queue.removeFirst();
+
+        private void record(long now) {
+            stamps[head] = now;
+            head = (head + 1) % stamps.length;
+        }
+
+        private int countWithin(long now) {
+            int count = 0;
+            for (long stamp : stamps) {
+                if (now - stamp < windowNanos) count++;
+            }
+            return count;
+        }
+
+        private void copyRecent(Window previous, long now) {
+            int size = previous.stamps.length;
+            for (int i = 0; i < size; i++) {
+                long stamp = previous.stamps[(previous.head + i) % size];
+                if (now - stamp < windowNanos) {
+                    record(stamp);
+                }
+            }
         }
     }
 }
@@ -0,0 +1,86 @@
+package org.example.util;
+
+public final class TopK {
+    private final int capacity;
+    private final int[] ids;
+    private final double[] scores;
+    private int size;
+
+    public TopK(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.ids = new int[this.capacity];
+        this.scores = new double[this.capacity];
+    }
+
+    public void offer(int id, double score) {
+        if (size < capacity) {
+            ids[size] = id;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (capacity > 0 && better(id, score, ids[0], scores[0])) {
+            ids[0] = id;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int[] drain() {
+        int[] ranked = new int[size];
+        while (size > 0) {
+            ranked[size - 1] = ids[0];
+            size--;
+            ids[0] = ids[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return ranked;
+    }
+
+    // Higher score wins; ties go to the lower id so the order matches a stable sort by id.
+    private static boolean better(int id, double score, int otherId, double otherScore) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!better(ids[parent], scores[parent], ids[index], scores[index])) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int worst = index;
+            int left = index * 2 + 1;
+            int right = left + 1;
+            if (left < size && better(ids[worst], scores[worst], ids[left], scores[left])) {
+                worst = left;
+            }
+            if (right < size && better(ids[worst], scores[worst], ids[right], scores[right])) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}